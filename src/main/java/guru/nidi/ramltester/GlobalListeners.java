@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.CheckListener;
+import guru.nidi.ramltester.core.CompositeCheckListener;
+import guru.nidi.ramltester.loader.LoadListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Listeners registered in META-INF/services. They are applied to every load and every RamlDefinition.
+ */
+class GlobalListeners {
+    private static final Logger log = LoggerFactory.getLogger(GlobalListeners.class);
+
+    static final CheckListener CHECK;
+    static final List<LoadListener> LOAD;
+
+    static {
+        CheckListener check = null;
+        for (CheckListener listener : load(CheckListener.class)) {
+            check = CompositeCheckListener.of(check, listener);
+        }
+        CHECK = check;
+        LOAD = load(LoadListener.class);
+    }
+
+    private GlobalListeners() {
+    }
+
+    private static <T> List<T> load(Class<T> type) {
+        final List<T> res = new ArrayList<>();
+        final Iterator<T> iter = ServiceLoader.load(type).iterator();
+        while (hasNext(iter)) {
+            try {
+                res.add(iter.next());
+            } catch (ServiceConfigurationError e) {
+                log.info("Could not load " + type.getSimpleName() + ", ignoring it", e);
+            }
+        }
+        return res;
+    }
+
+    private static boolean hasNext(Iterator<?> iter) {
+        try {
+            return iter.hasNext();
+        } catch (ServiceConfigurationError e) {
+            log.info("Problem reading services", e);
+            return false;
+        }
+    }
+}
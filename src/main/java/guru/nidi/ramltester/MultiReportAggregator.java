@@ -26,24 +26,24 @@ import java.util.Map;
  *
  */
 public class MultiReportAggregator implements ReportAggregator {
-    private Map<String, List<RamlReport>> reports = new HashMap<>();
+    private final Map<String, List<RamlReport>> reports = new HashMap<>();
 
     @Override
-    public RamlReport addReport(RamlReport report) {
+    public synchronized RamlReport addReport(RamlReport report) {
         if (report != null) {
-            final String title = report.getRaml().getTitle();
+            final String title = report.getDefinitionTitle();
             final List<RamlReport> reportList = getOrCreateReports(title);
             reportList.add(report);
         }
         return report;
     }
 
-    public List<RamlReport> getReports(RamlDefinition definition) {
-        return getOrCreateReports(definition.getRaml().getTitle());
+    public synchronized List<RamlReport> getReports(RamlDefinition definition) {
+        return new ArrayList<>(getOrCreateReports(definition.getDefinitionTitle()));
     }
 
-    public Usage getUsage(RamlDefinition definition) {
-        return UsageBuilder.usage(definition.getRaml(), getReports(definition));
+    public synchronized Usage getUsage(RamlDefinition definition) {
+        return UsageBuilder.usage(definition.getRaml(), getOrCreateReports(definition.getDefinitionTitle()));
     }
 
     public UsageProvider usageProvider(final RamlDefinition definition) {
@@ -55,14 +55,18 @@ public class MultiReportAggregator implements ReportAggregator {
         };
     }
 
-    public Iterable<Map.Entry<String, List<RamlReport>>> reports() {
-        return reports.entrySet();
+    public synchronized Iterable<Map.Entry<String, List<RamlReport>>> reports() {
+        final Map<String, List<RamlReport>> res = new HashMap<>();
+        for (Map.Entry<String, List<RamlReport>> entry : reports.entrySet()) {
+            res.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return res.entrySet();
     }
 
-    public Iterable<Map.Entry<String, Usage>> usages() {
+    public synchronized Iterable<Map.Entry<String, Usage>> usages() {
         Map<String, Usage> res = new HashMap<>();
         for (Map.Entry<String, List<RamlReport>> entry : reports.entrySet()) {
-            res.put(entry.getKey(), UsageBuilder.usage(entry.getValue().get(0).getRaml(), entry.getValue()));
+            res.put(entry.getKey(), UsageBuilder.usage(entry.getValue().get(entry.getValue().size() - 1).getRaml(), entry.getValue()));
         }
         return res.entrySet();
     }
@@ -15,16 +15,22 @@
  */
 package guru.nidi.ramltester;
 
+import guru.nidi.ramltester.core.CheckListener;
+import guru.nidi.ramltester.core.CompositeCheckListener;
 import guru.nidi.ramltester.core.RamlChecker;
 import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.core.ReportAggregator;
 import guru.nidi.ramltester.httpcomponents.RamlHttpClient;
 import guru.nidi.ramltester.model.RamlRequest;
 import guru.nidi.ramltester.model.RamlResponse;
 import guru.nidi.ramltester.servlet.ServletTester;
+import guru.nidi.ramltester.spring.RamlAsyncRestTemplate;
 import guru.nidi.ramltester.spring.RamlMatcher;
 import guru.nidi.ramltester.spring.RamlRestTemplate;
+import guru.nidi.ramltester.util.CaptureLimits;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.raml.model.Raml;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.client.RestTemplate;
@@ -34,6 +40,7 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -42,23 +49,41 @@ public class RamlDefinition {
     private final Raml raml;
     private final SchemaValidators schemaValidators;
     private final String baseUri;
+    private final CheckListener listener;
 
-    public RamlDefinition(Raml raml, SchemaValidators schemaValidators, String baseUri) {
+    RamlDefinition(Raml raml, SchemaValidators schemaValidators, String baseUri, CheckListener listener) {
         this.raml = raml;
         this.schemaValidators = schemaValidators;
         this.baseUri = baseUri;
+        this.listener = listener;
+    }
+
+    public RamlDefinition(Raml raml, SchemaValidators schemaValidators, String baseUri) {
+        this(raml, schemaValidators, baseUri, GlobalListeners.CHECK);
     }
 
     public Raml getRaml() {
         return raml;
     }
 
+    String getDefinitionTitle() {
+        return raml.getTitle();
+    }
+
+    SchemaValidators getSchemaValidators() {
+        return schemaValidators;
+    }
+
     public RamlDefinition(Raml raml, SchemaValidators schemaValidators) {
         this(raml, schemaValidators, null);
     }
 
     public RamlDefinition assumingBaseUri(String baseUri) {
-        return new RamlDefinition(raml, schemaValidators, baseUri);
+        return new RamlDefinition(raml, schemaValidators, baseUri, listener);
+    }
+
+    public RamlDefinition withListener(CheckListener listener) {
+        return new RamlDefinition(raml, schemaValidators, baseUri, CompositeCheckListener.of(this.listener, listener));
     }
 
     public RamlReport testAgainst(RamlRequest request, RamlResponse response) {
@@ -73,6 +98,26 @@ public class RamlDefinition {
         return new ServletTester(createTester()).testAgainst(request, response, chain);
     }
 
+    /**
+     * Test while capturing request and response bodies only up to the given limits.
+     * The schemas of bodies that exceed the limits are not validated.
+     */
+    public RamlReport testAgainst(ServletRequest request, ServletResponse response, FilterChain chain, CaptureLimits limits) throws IOException, ServletException {
+        return new ServletTester(createTester(), limits).testAgainst(request, response, chain);
+    }
+
+    /**
+     * Test and add the report to the given aggregator.
+     * Asynchronous requests are checked when their processing completes, so their reports are only available to the aggregator.
+     */
+    public RamlReport testAgainst(ServletRequest request, ServletResponse response, FilterChain chain, ReportAggregator aggregator) throws IOException, ServletException {
+        return new ServletTester(createTester()).aggregating(aggregator).testAgainst(request, response, chain);
+    }
+
+    public RamlReport testAgainst(ServletRequest request, ServletResponse response, FilterChain chain, CaptureLimits limits, ReportAggregator aggregator) throws IOException, ServletException {
+        return new ServletTester(createTester(), limits).aggregating(aggregator).testAgainst(request, response, chain);
+    }
+
     public RamlMatcher matches() {
         return new RamlMatcher(createTester());
     }
@@ -85,6 +130,13 @@ public class RamlDefinition {
         return new RamlRestTemplate(createTester(), restTemplate);
     }
 
+    /**
+     * @param checkExecutor executes the checks, so that the caller does not wait for them.
+     */
+    public RamlAsyncRestTemplate createAsyncRestTemplate(AsyncClientHttpRequestFactory requestFactory, Executor checkExecutor) {
+        return new RamlAsyncRestTemplate(createTester(), requestFactory, checkExecutor);
+    }
+
     public RamlHttpClient createHttpClient() {
         return new RamlHttpClient(createTester());
     }
@@ -94,7 +146,7 @@ public class RamlDefinition {
     }
 
     public RamlChecker createTester() {
-        return new RamlChecker(raml, schemaValidators.getValidators(), baseUri);
+        return new RamlChecker(raml, schemaValidators.getValidators(), baseUri, listener);
     }
 
 }
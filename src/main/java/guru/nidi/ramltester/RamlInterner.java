@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.SchemaRegistry;
+import org.raml.model.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the strings of a raml model that are typically repeated within and across definitions
+ * (uris, parameter names, media types, schemas) by shared instances.
+ */
+final class RamlInterner {
+    private RamlInterner() {
+    }
+
+    public static Raml intern(Raml raml) {
+        if (raml.getSchemas() != null) {
+            for (Map<String, String> schemas : raml.getSchemas()) {
+                internMap(schemas);
+            }
+        }
+        internKeys(raml.getBaseUriParameters());
+        internResources(raml.getResources());
+        return raml;
+    }
+
+    private static void internResources(Map<String, Resource> resources) {
+        if (resources == null) {
+            return;
+        }
+        internKeys(resources);
+        for (Resource resource : resources.values()) {
+            resource.setParentUri(SchemaRegistry.intern(resource.getParentUri()));
+            resource.setRelativeUri(SchemaRegistry.intern(resource.getRelativeUri()));
+            internKeys(resource.getUriParameters());
+            internKeys(resource.getBaseUriParameters());
+            for (Action action : resource.getActions().values()) {
+                internKeys(action.getQueryParameters());
+                internKeys(action.getHeaders());
+                internKeys(action.getBaseUriParameters());
+                internBodies(action.getBody());
+                internKeys(action.getResponses());
+                for (Response response : action.getResponses().values()) {
+                    internKeys(response.getHeaders());
+                    internBodies(response.getBody());
+                }
+            }
+            internResources(resource.getResources());
+        }
+    }
+
+    private static void internBodies(Map<String, MimeType> bodies) {
+        if (bodies == null) {
+            return;
+        }
+        internKeys(bodies);
+        for (MimeType mimeType : bodies.values()) {
+            mimeType.setType(SchemaRegistry.intern(mimeType.getType()));
+            mimeType.setSchema(SchemaRegistry.intern(mimeType.getSchema()));
+            internKeys(mimeType.getFormParameters());
+        }
+    }
+
+    private static void internMap(Map<String, String> map) {
+        internKeys(map);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            entry.setValue(SchemaRegistry.intern(entry.getValue()));
+        }
+    }
+
+    private static <T> void internKeys(Map<String, T> map) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        final Map<String, T> interned = new LinkedHashMap<>();
+        for (Map.Entry<String, T> entry : map.entrySet()) {
+            interned.put(SchemaRegistry.intern(entry.getKey()), entry.getValue());
+        }
+        map.clear();
+        map.putAll(interned);
+    }
+}
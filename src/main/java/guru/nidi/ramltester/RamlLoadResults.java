@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ */
+public class RamlLoadResults {
+    private final Map<String, RamlDefinition> definitions = new LinkedHashMap<>();
+    private final Map<String, Exception> failures = new LinkedHashMap<>();
+
+    void addDefinition(String name, RamlDefinition definition) {
+        definitions.put(name, definition);
+    }
+
+    void addFailure(String name, Exception failure) {
+        failures.put(name, failure);
+    }
+
+    public Map<String, RamlDefinition> getDefinitions() {
+        return Collections.unmodifiableMap(definitions);
+    }
+
+    public Map<String, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public RamlDefinition get(String name) {
+        final Exception failure = failures.get(name);
+        if (failure != null) {
+            throw new IllegalStateException("Could not load '" + name + "'", failure);
+        }
+        return definitions.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return "RamlLoadResults{" +
+                "definitions=" + definitions.keySet() +
+                ", failures=" + failures +
+                '}';
+    }
+}
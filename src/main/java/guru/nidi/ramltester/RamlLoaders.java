@@ -16,29 +16,78 @@
 package guru.nidi.ramltester;
 
 import guru.nidi.ramltester.apidesigner.ApiRamlLoader;
+import guru.nidi.ramltester.core.RamlViolations;
+import guru.nidi.ramltester.core.SchemaCompiler;
 import guru.nidi.ramltester.core.SchemaValidator;
 import guru.nidi.ramltester.loader.*;
 import org.raml.model.Raml;
 import org.raml.parser.visitor.RamlDocumentBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
  */
 public class RamlLoaders {
+    private static final Logger log = LoggerFactory.getLogger(RamlLoaders.class);
+    private static final ThreadFactory PREFETCH_THREADS = daemonThreads("raml-prefetch-");
+    private static final ThreadFactory LOAD_THREADS = daemonThreads("raml-load-");
+
+    private static final long DEFAULT_SCHEMA_CACHE_BYTES = 16 * 1024 * 1024;
+
     private final RamlLoader loader;
     private final SchemaValidators schemaValidators;
+    private final RamlSnapshots snapshots;
+    private final int prefetchThreads;
+    private final long schemaCacheBytes;
+    private final boolean prefetchSchemaReferences;
+    private final SchemaCompilation schemaCompilation;
 
-    public RamlLoaders(RamlLoader loader, SchemaValidators schemaValidators) {
+    private enum SchemaCompilation {
+        LAZY, WARN, FAIL
+    }
+
+    private RamlLoaders(RamlLoader loader, SchemaValidators schemaValidators, RamlSnapshots snapshots, int prefetchThreads,
+                        long schemaCacheBytes, boolean prefetchSchemaReferences, SchemaCompilation schemaCompilation) {
         this.loader = loader;
         this.schemaValidators = schemaValidators;
+        this.snapshots = snapshots;
+        this.prefetchThreads = prefetchThreads;
+        this.schemaCacheBytes = schemaCacheBytes;
+        this.prefetchSchemaReferences = prefetchSchemaReferences;
+        this.schemaCompilation = schemaCompilation;
+    }
+
+    public RamlLoaders(RamlLoader loader, SchemaValidators schemaValidators) {
+        this(loader, schemaValidators, null, 0, DEFAULT_SCHEMA_CACHE_BYTES, false, SchemaCompilation.LAZY);
     }
 
     public RamlLoaders(RamlLoader loader) {
         this(loader, SchemaValidators.standard());
     }
 
+    private static ThreadFactory daemonThreads(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
     private static RamlLoader classpathLoader(Class<?> basePackage) {
         return classpathLoader(basePackage.getPackage().getName().replace('.', '/'));
     }
@@ -55,10 +104,18 @@ public class RamlLoaders {
         return new UrlRamlLoader(baseUrl);
     }
 
+    private static RamlLoader urlLoader(String baseUrl, File cacheDirectory) {
+        return new UrlRamlLoader(baseUrl, new CachingUrlFetcher(cacheDirectory));
+    }
+
     private static RamlLoader apiPortalLoader(String user, String password) {
         return new ApiRamlLoader(user, password);
     }
 
+    private static RamlLoader apiPortalLoader(String user, String password, File cacheDirectory) {
+        return new ApiRamlLoader(user, password, cacheDirectory);
+    }
+
     private static RamlLoader apiDesignerLoader(String url) {
         return new ApiRamlLoader(url);
     }
@@ -79,10 +136,18 @@ public class RamlLoaders {
         return using(urlLoader(baseUrl));
     }
 
+    public static RamlLoaders fromUrl(String baseUrl, File cacheDirectory) {
+        return using(urlLoader(baseUrl, cacheDirectory));
+    }
+
     public static RamlLoaders fromApiPortal(String user, String password) {
         return using(apiPortalLoader(user, password));
     }
 
+    public static RamlLoaders fromApiPortal(String user, String password, File cacheDirectory) {
+        return using(apiPortalLoader(user, password, cacheDirectory));
+    }
+
     public static RamlLoaders fromApiDesigner(String url) {
         return using(apiDesignerLoader(url));
     }
@@ -112,27 +177,299 @@ public class RamlLoaders {
         return andUsing(urlLoader(baseUrl));
     }
 
+    public RamlLoaders andFromUrl(String baseUrl, File cacheDirectory) {
+        return andUsing(urlLoader(baseUrl, cacheDirectory));
+    }
+
     public RamlLoaders andFromApiPortal(String user, String password) {
         return andUsing(apiPortalLoader(user, password));
     }
 
+    public RamlLoaders andFromApiPortal(String user, String password, File cacheDirectory) {
+        return andUsing(apiPortalLoader(user, password, cacheDirectory));
+    }
+
     public RamlLoaders andFromApiDesigner(String url) {
         return andUsing(apiDesignerLoader(url));
     }
 
     public RamlLoaders andUsing(RamlLoader loader) {
-        return new RamlLoaders(new CompositeRamlLoader(this.loader, loader), schemaValidators);
+        return new RamlLoaders(new CompositeRamlLoader(this.loader, loader), schemaValidators, snapshots, prefetchThreads, schemaCacheBytes, prefetchSchemaReferences, schemaCompilation);
     }
 
     public RamlLoaders addSchemaValidator(SchemaValidator schemaValidator) {
-        return new RamlLoaders(loader, schemaValidators.addSchemaValidator(schemaValidator));
+        return new RamlLoaders(loader, schemaValidators.addSchemaValidator(schemaValidator), snapshots, prefetchThreads, schemaCacheBytes, prefetchSchemaReferences, schemaCompilation);
+    }
+
+    /**
+     * Keep the parsed models in the given directory and reuse them as long as none of the loaded resources changed.
+     */
+    public RamlLoaders withSnapshots(File snapshotDirectory) {
+        return new RamlLoaders(loader, schemaValidators, new RamlSnapshots(snapshotDirectory), prefetchThreads, schemaCacheBytes, prefetchSchemaReferences, schemaCompilation);
+    }
+
+    /**
+     * Fetch the !include and $ref targets of every loaded resource in advance, using the given number of threads.
+     */
+    public RamlLoaders prefetching(int threads) {
+        return new RamlLoaders(loader, schemaValidators, snapshots, threads, schemaCacheBytes, prefetchSchemaReferences, schemaCompilation);
+    }
+
+    /**
+     * Limit the memory used to cache the resources referenced by schemas ($ref, xs:include, xs:import).
+     */
+    public RamlLoaders cachingSchemaReferences(long maxBytes) {
+        return new RamlLoaders(loader, schemaValidators, snapshots, prefetchThreads, maxBytes, prefetchSchemaReferences, schemaCompilation);
+    }
+
+    /**
+     * Load the resources referenced by schemas already when loading the definition, so that validation needs no I/O.
+     */
+    public RamlLoaders prefetchingSchemaReferences() {
+        return new RamlLoaders(loader, schemaValidators, snapshots, prefetchThreads, schemaCacheBytes, true, schemaCompilation);
+    }
+
+    /**
+     * Compile all schemas already when loading the definition in parallel.
+     * Invalid schemas are either logged or make the load fail with an InvalidSchemaException.
+     */
+    public RamlLoaders compilingSchemas(boolean failOnInvalid) {
+        return new RamlLoaders(loader, schemaValidators, snapshots, prefetchThreads, schemaCacheBytes, prefetchSchemaReferences,
+                failOnInvalid ? SchemaCompilation.FAIL : SchemaCompilation.WARN);
     }
 
     public RamlDefinition load(String name) {
-        final RamlLoader decorated = new UriRamlLoader(loader);
-        final Raml raml = new RamlDocumentBuilder(new RamlLoaderRamlParserResourceLoader(decorated)).build(name);
-        final SchemaValidators validators = schemaValidators.withResourceLoader(decorated);
-        return new RamlDefinition(raml, validators);
+        final UriRamlLoader uriLoader = decoratedLoader();
+        if (prefetchThreads <= 0) {
+            try {
+                return load(name, uriLoader, schemaLoader(uriLoader));
+            } finally {
+                release(uriLoader);
+            }
+        }
+        final ExecutorService prefetcher = Executors.newFixedThreadPool(prefetchThreads, PREFETCH_THREADS);
+        final PrefetchingRamlLoader decorated = new PrefetchingRamlLoader(uriLoader, prefetcher);
+        try {
+            return load(name, decorated, schemaLoader(decorated));
+        } finally {
+            prefetcher.shutdown();
+            decorated.close();
+            release(uriLoader);
+        }
+    }
+
+    public RamlLoadResults loadAll(String... names) {
+        return loadAll(Runtime.getRuntime().availableProcessors(), Arrays.asList(names));
+    }
+
+    /**
+     * Load multiple definitions concurrently.
+     * Resources and schema validators are shared, so files used by multiple definitions are only fetched once
+     * and schemas used by multiple definitions are only compiled once.
+     * A definition that cannot be loaded does not affect the others, the failure is reported in the result.
+     */
+    public RamlLoadResults loadAll(int parallelism, Collection<String> names) {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, LOAD_THREADS);
+        final UriRamlLoader uriLoader = decoratedLoader();
+        final PrefetchingRamlLoader shared = new PrefetchingRamlLoader(uriLoader, prefetchThreads > 0 ? executor : null);
+        final ForkJoinPool compiler = schemaCompilation == SchemaCompilation.LAZY ? null : new ForkJoinPool();
+        try {
+            final CachingRamlLoader schemaLoader = schemaLoader(shared);
+            final SchemaValidators validators = schemaValidators.withResourceLoader(schemaLoader);
+            final Map<String, Future<RamlDefinition>> futures = new LinkedHashMap<>();
+            for (final String name : names) {
+                futures.put(name, executor.submit(new Callable<RamlDefinition>() {
+                    @Override
+                    public RamlDefinition call() {
+                        return load(name, shared, schemaLoader, validators, compiler);
+                    }
+                }));
+            }
+            final RamlLoadResults results = new RamlLoadResults();
+            for (Map.Entry<String, Future<RamlDefinition>> entry : futures.entrySet()) {
+                try {
+                    results.addDefinition(entry.getKey(), entry.getValue().get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.addFailure(entry.getKey(), e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    results.addFailure(entry.getKey(), (Exception) e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+            if (compiler != null) {
+                compiler.shutdown();
+            }
+            shared.close();
+            release(uriLoader);
+        }
+    }
+
+    private RamlDefinition load(String name, RamlLoader decorated, CachingRamlLoader schemaLoader) {
+        return load(name, decorated, schemaLoader, schemaValidators.withResourceLoader(schemaLoader), null);
+    }
+
+    private RamlDefinition load(String name, RamlLoader decorated, CachingRamlLoader schemaLoader,
+                                SchemaValidators validators, ForkJoinPool compiler) {
+        if (GlobalListeners.LOAD.isEmpty()) {
+            final Raml raml = parse(name, decorated);
+            return new RamlDefinition(raml, schemaValidators(raml, schemaLoader, validators, compiler));
+        }
+        for (LoadListener listener : GlobalListeners.LOAD) {
+            listener.loadStarted(name, loader);
+        }
+        final long start = System.nanoTime();
+        final CountingRamlLoader counting = new CountingRamlLoader(decorated);
+        try {
+            final Raml raml = parse(name, counting);
+            return new RamlDefinition(raml, schemaValidators(raml, schemaLoader, validators, compiler));
+        } finally {
+            final long duration = System.nanoTime() - start;
+            for (LoadListener listener : GlobalListeners.LOAD) {
+                listener.loadFinished(name, loader, counting.getBytes(), duration);
+            }
+        }
+    }
+
+    /**
+     * Load a definition that is parsed again whenever one of the files it was loaded from changes.
+     * Only files loaded by a FileRamlLoader are watched.
+     */
+    public ReloadingRamlDefinition loadReloading(String name) {
+        final List<File> bases = new ArrayList<>();
+        fileBases(loader, bases);
+        if (bases.isEmpty()) {
+            throw new IllegalArgumentException("Reloading needs at least one FileRamlLoader");
+        }
+        return new ReloadingRamlDefinition(new RamlReloader(this, name, bases));
+    }
+
+    private static void fileBases(RamlLoader loader, List<File> bases) {
+        if (loader instanceof FileRamlLoader) {
+            bases.add(((FileRamlLoader) loader).getBase());
+        } else if (loader instanceof CompositeRamlLoader) {
+            for (RamlLoader child : ((CompositeRamlLoader) loader).getLoaders()) {
+                fileBases(child, bases);
+            }
+        }
+    }
+
+    UriRamlLoader decoratedLoader() {
+        return new UriRamlLoader(loader);
+    }
+
+    /**
+     * Release the repositories that have been read while loading, once the definition is complete.
+     * They are read again if a schema needs one of their resources later.
+     */
+    void release(UriRamlLoader decorated) {
+        try {
+            decorated.close();
+            release(loader);
+        } catch (IOException e) {
+            log.warn("Could not release loader", e);
+        }
+    }
+
+    private static void release(RamlLoader loader) throws IOException {
+        if (loader instanceof RepositoryRamlLoader) {
+            ((RepositoryRamlLoader) loader).close();
+        } else if (loader instanceof CompositeRamlLoader) {
+            for (RamlLoader child : ((CompositeRamlLoader) loader).getLoaders()) {
+                release(child);
+            }
+        }
+    }
+
+    Raml parse(String name, RamlLoader decorated) {
+        return RamlInterner.intern(snapshots == null
+                ? new RamlDocumentBuilder(new RamlLoaderRamlParserResourceLoader(decorated)).build(name)
+                : snapshots.load(name, loader, decorated));
+    }
+
+    CachingRamlLoader schemaLoader(RamlLoader decorated) {
+        return new CachingRamlLoader(decorated, schemaCacheBytes);
+    }
+
+    SchemaValidators schemaValidators(Raml raml, CachingRamlLoader schemaLoader) {
+        return schemaValidators(raml, schemaLoader, schemaValidators.withResourceLoader(schemaLoader), null);
+    }
+
+    /**
+     * @param validators the validators using the schemaLoader, they may be shared by multiple definitions.
+     * @param compiler   the pool to compile the schemas in, shared by multiple definitions, or null to use a pool of its own.
+     */
+    private SchemaValidators schemaValidators(Raml raml, CachingRamlLoader schemaLoader, SchemaValidators validators,
+                                              ForkJoinPool compiler) {
+        if (prefetchSchemaReferences) {
+            SchemaPrefetcher.prefetch(raml, schemaLoader);
+        }
+        if (schemaCompilation != SchemaCompilation.LAZY) {
+            if (compiler != null) {
+                compile(raml, validators, compiler);
+            } else {
+                final ForkJoinPool pool = new ForkJoinPool();
+                try {
+                    compile(raml, validators, pool);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        return validators;
+    }
+
+    private void compile(Raml raml, SchemaValidators validators, ForkJoinPool pool) {
+        final RamlViolations violations = new SchemaCompiler(raml, validators.getValidators()).compile(pool);
+        if (!violations.isEmpty()) {
+            if (schemaCompilation == SchemaCompilation.FAIL) {
+                throw new InvalidSchemaException(raml.getTitle(), violations);
+            }
+            for (String violation : violations) {
+                log.warn("{}: {}", raml.getTitle(), violation);
+            }
+        }
+    }
+
+    private static class CountingRamlLoader implements RamlLoader {
+        private final RamlLoader delegate;
+        private final AtomicLong bytes = new AtomicLong();
+
+        public CountingRamlLoader(RamlLoader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            return new FilterInputStream(delegate.fetchResource(name)) {
+                @Override
+                public int read() throws IOException {
+                    final int read = super.read();
+                    if (read >= 0) {
+                        bytes.incrementAndGet();
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    final int read = super.read(b, off, len);
+                    if (read > 0) {
+                        bytes.addAndGet(read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
     }
 
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.loader.RamlLoader;
+import guru.nidi.ramltester.loader.UriRamlLoader;
+import org.raml.model.Raml;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the files a raml definition was loaded from and parses it again in the background when one of them changes.
+ */
+class RamlReloader implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RamlReloader.class);
+    private static final long SETTLE_MILLIS = 100;
+
+    private final RamlLoaders loaders;
+    private final String name;
+    private final List<File> bases;
+    private final WatchService watchService;
+    private final Set<Path> watchedDirs = new HashSet<>();
+    private final Thread watcher;
+    private final String title;
+    private volatile Set<Path> files;
+    private volatile Version current;
+
+    static class Version {
+        final Raml raml;
+        final SchemaValidators schemaValidators;
+        final int number;
+
+        Version(Raml raml, SchemaValidators schemaValidators, int number) {
+            this.raml = raml;
+            this.schemaValidators = schemaValidators;
+            this.number = number;
+        }
+    }
+
+    public RamlReloader(RamlLoaders loaders, String name, List<File> bases) {
+        this.loaders = loaders;
+        this.name = name;
+        this.bases = bases;
+        current = parse(1);
+        title = current.raml.getTitle();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerDirs();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not watch the files of " + name, e);
+        }
+        watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "raml-reloader " + name);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public Version current() {
+        return current;
+    }
+
+    /**
+     * @return the title of the initially loaded version, it does not change on reloads.
+     */
+    public String title() {
+        return title;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.interrupt();
+        watchService.close();
+    }
+
+    private Version parse(int number) {
+        final UriRamlLoader decorated = loaders.decoratedLoader();
+        try {
+            final RecordingRamlLoader recording = new RecordingRamlLoader(decorated);
+            final Raml raml = loaders.parse(name, recording);
+            files = resolve(recording.names);
+            return new Version(raml, loaders.schemaValidators(raml, loaders.schemaLoader(decorated)), number);
+        } finally {
+            loaders.release(decorated);
+        }
+    }
+
+    private Set<Path> resolve(Set<String> names) {
+        final Set<Path> res = new HashSet<>();
+        for (String name : names) {
+            if (name.startsWith("file://")) {
+                res.add(normalize(new File(name.substring(7))));
+            } else {
+                for (File base : bases) {
+                    final File file = new File(base, name);
+                    if (file.exists()) {
+                        res.add(normalize(file));
+                        break;
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    private Path normalize(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private void registerDirs() throws IOException {
+        for (Path file : files) {
+            final Path dir = file.getParent();
+            if (watchedDirs.add(dir)) {
+                dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = changed(watchService.take());
+                //editors often write a file in several steps, wait until it settles
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= changed(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //closed
+        }
+    }
+
+    private boolean changed(WatchKey key) {
+        final Path dir = (Path) key.watchable();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || files.contains(dir.resolve((Path) event.context()))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        final Set<Path> oldFiles = files;
+        try {
+            final Version version = parse(current.number + 1);
+            registerDirs();
+            current = version;
+            log.info("Reloaded {}", name);
+        } catch (IOException | RuntimeException e) {
+            files = oldFiles;
+            log.warn("Could not reload " + name + ", keeping the previous version", e);
+        }
+    }
+
+    private static class RecordingRamlLoader implements RamlLoader {
+        private final RamlLoader delegate;
+        private final Set<String> names = Collections.synchronizedSet(new LinkedHashSet<String>());
+
+        public RecordingRamlLoader(RamlLoader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            names.add(name);
+            return delegate.fetchResource(name);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.loader.*;
+import guru.nidi.ramltester.util.IoUtils;
+import org.raml.model.Raml;
+import org.raml.parser.visitor.RamlDocumentBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores parsed raml models in a directory, together with the digests of all resources that were read while parsing.
+ * A snapshot is only used if all these resources are still unchanged.
+ */
+class RamlSnapshots {
+    private static final Logger log = LoggerFactory.getLogger(RamlSnapshots.class);
+    private static final int VERSION = 1;
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+            "java.lang.String", "java.lang.Boolean", "java.lang.Number", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Double", "java.lang.Float", "java.lang.Short", "java.lang.Byte", "java.lang.Character",
+            "java.lang.Enum", "java.math.BigDecimal", "java.math.BigInteger"));
+
+    private final File directory;
+
+    public RamlSnapshots(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param source the loader the definition comes from, snapshots of equally named definitions from different sources are kept apart.
+     * @param loader the loader to read the resources with.
+     */
+    public Raml load(String name, RamlLoader source, RamlLoader loader) {
+        final File file = new File(directory, digest(bytes(identity(source) + "\n" + name)) + ".snapshot");
+        final Raml snapshot = read(file, loader);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        final DigestingRamlLoader digesting = new DigestingRamlLoader(loader);
+        final Raml raml = new RamlDocumentBuilder(new RamlLoaderRamlParserResourceLoader(digesting)).build(name);
+        write(file, digesting.getDigests(), raml);
+        return raml;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Raml read(File file, RamlLoader loader) {
+        if (!file.exists()) {
+            return null;
+        }
+        try (final ObjectInputStream in = new ModelInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            final Map<String, String> digests = (Map<String, String>) in.readObject();
+            for (Map.Entry<String, String> entry : digests.entrySet()) {
+                if (!entry.getValue().equals(digest(IoUtils.readIntoByteArray(loader.fetchResource(entry.getKey()))))) {
+                    return null;
+                }
+            }
+            return (Raml) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException | RamlLoader.ResourceNotFoundException e) {
+            log.info("Could not use snapshot " + file + ", parsing again", e);
+            return null;
+        }
+    }
+
+    private void write(File file, Map<String, String> digests, Raml raml) {
+        try {
+            directory.mkdirs();
+            final File temp = File.createTempFile(file.getName(), ".tmp", directory);
+            try {
+                try (final ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))) {
+                    out.writeInt(VERSION);
+                    out.writeObject(digests);
+                    out.writeObject(raml);
+                }
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            log.info("Could not write snapshot " + file, e);
+        }
+    }
+
+    static String identity(RamlLoader loader) {
+        if (loader instanceof ClassPathRamlLoader) {
+            return "classpath:" + ((ClassPathRamlLoader) loader).getBase();
+        }
+        if (loader instanceof FileRamlLoader) {
+            return "file:" + ((FileRamlLoader) loader).getBase().getAbsolutePath();
+        }
+        if (loader instanceof UrlRamlLoader) {
+            return "url:" + ((UrlRamlLoader) loader).getBase();
+        }
+        if (loader instanceof RepositoryRamlLoader) {
+            return loader.getClass().getName() + ":" + identity(((RepositoryRamlLoader) loader).getLoader());
+        }
+        if (loader instanceof CompositeRamlLoader) {
+            final StringBuilder s = new StringBuilder("composite:");
+            for (RamlLoader child : ((CompositeRamlLoader) loader).getLoaders()) {
+                s.append('[').append(identity(child)).append(']');
+            }
+            return s.toString();
+        }
+        return loader == null ? "" : loader.getClass().getName();
+    }
+
+    static boolean isAllowed(String className) {
+        String name = className;
+        while (name.startsWith("[")) {
+            name = name.substring(1);
+        }
+        if (name.length() == 1) {
+            return true;
+        }
+        if (name.startsWith("L") && name.endsWith(";")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.startsWith("org.raml.model.") || name.startsWith("java.util.") || ALLOWED_CLASSES.contains(name);
+    }
+
+    /**
+     * Only deserializes the classes of the raml model, so a manipulated snapshot can not instantiate arbitrary classes.
+     */
+    private static class ModelInputStream extends ObjectInputStream {
+        public ModelInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed in a snapshot");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not allowed in a snapshot");
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        try {
+            return s.getBytes("utf-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(data);
+            final StringBuilder s = new StringBuilder();
+            for (byte b : digest) {
+                s.append(String.format("%02x", b));
+            }
+            return s.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static class DigestingRamlLoader implements RamlLoader {
+        private final RamlLoader delegate;
+        private final LinkedHashMap<String, String> digests = new LinkedHashMap<>();
+
+        public DigestingRamlLoader(RamlLoader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            try {
+                final byte[] data = IoUtils.readIntoByteArray(delegate.fetchResource(name));
+                digests.put(name, digest(data));
+                return new ByteArrayInputStream(data);
+            } catch (IOException e) {
+                throw new ResourceNotFoundException(name, e);
+            }
+        }
+
+        public LinkedHashMap<String, String> getDigests() {
+            return digests;
+        }
+    }
+}
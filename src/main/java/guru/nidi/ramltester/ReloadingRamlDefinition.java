@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.*;
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import org.raml.model.Raml;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A RamlDefinition that follows changes of the files it was loaded from.
+ * Every check uses the version that was current when the check started,
+ * also the checks of clients, templates and matchers created from this definition.
+ */
+public class ReloadingRamlDefinition extends RamlDefinition implements Closeable {
+    private final RamlReloader reloader;
+    private final String baseUri;
+    private final CheckListener listener;
+
+    private ReloadingRamlDefinition(RamlReloader reloader, String baseUri, CheckListener listener) {
+        super(reloader.current().raml, reloader.current().schemaValidators, baseUri, listener);
+        this.reloader = reloader;
+        this.baseUri = baseUri;
+        this.listener = listener;
+    }
+
+    ReloadingRamlDefinition(RamlReloader reloader) {
+        this(reloader, null, GlobalListeners.CHECK);
+    }
+
+    /**
+     * @return 1 for the initially loaded definition, incremented on every successful reload.
+     */
+    public int getVersion() {
+        return reloader.current().number;
+    }
+
+    @Override
+    public Raml getRaml() {
+        return reloader.current().raml;
+    }
+
+    @Override
+    String getDefinitionTitle() {
+        return reloader.title();
+    }
+
+    @Override
+    public ReloadingRamlDefinition assumingBaseUri(String baseUri) {
+        return new ReloadingRamlDefinition(reloader, baseUri, listener);
+    }
+
+    @Override
+    public ReloadingRamlDefinition withListener(CheckListener listener) {
+        return new ReloadingRamlDefinition(reloader, baseUri, CompositeCheckListener.of(this.listener, listener));
+    }
+
+    @Override
+    public RamlChecker createTester() {
+        return new ReloadingRamlChecker(reloader, baseUri, listener);
+    }
+
+    /**
+     * Stop watching for changes. Shared by all definitions derived from this one.
+     */
+    @Override
+    public void close() throws IOException {
+        reloader.close();
+    }
+
+    private static class ReloadingRamlChecker extends RamlChecker {
+        private final RamlReloader reloader;
+        private final String baseUri;
+        private final CheckListener listener;
+
+        public ReloadingRamlChecker(RamlReloader reloader, String baseUri, CheckListener listener) {
+            super(reloader.current().raml, reloader.current().schemaValidators.getValidators(), baseUri, listener, reloader.title());
+            this.reloader = reloader;
+            this.baseUri = baseUri;
+            this.listener = listener;
+        }
+
+        @Override
+        public RamlReport check(RamlRequest request, RamlResponse response) {
+            final RamlReloader.Version version = reloader.current();
+            return new RamlChecker(version.raml, version.schemaValidators.getValidators(), baseUri, listener, reloader.title())
+                    .check(request, response);
+        }
+    }
+}
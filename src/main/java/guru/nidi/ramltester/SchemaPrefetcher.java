@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.loader.RamlLoader;
+import guru.nidi.ramltester.util.IoUtils;
+import org.raml.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads all resources referenced by the schemas of a raml, so that they are cached before the first validation.
+ */
+class SchemaPrefetcher {
+    private static final Logger log = LoggerFactory.getLogger(SchemaPrefetcher.class);
+    private static final Charset UTF_8 = Charset.forName("utf-8");
+    private static final Pattern JSON_REF = Pattern.compile("\"\\$ref\"\\s*:\\s*\"([^\"#]+)");
+    private static final Pattern XSD_LOCATION = Pattern.compile("schemaLocation\\s*=\\s*[\"']([^\"']+)");
+
+    private final RamlLoader loader;
+    private final Set<String> fetched = new HashSet<>();
+
+    private SchemaPrefetcher(RamlLoader loader) {
+        this.loader = loader;
+    }
+
+    public static void prefetch(Raml raml, RamlLoader loader) {
+        final SchemaPrefetcher prefetcher = new SchemaPrefetcher(loader);
+        for (String schema : schemas(raml)) {
+            prefetcher.prefetchReferences(schema);
+        }
+    }
+
+    static Set<String> schemas(Raml raml) {
+        final Set<String> schemas = new LinkedHashSet<>();
+        if (raml.getConsolidatedSchemas() != null) {
+            schemas.addAll(raml.getConsolidatedSchemas().values());
+        }
+        addSchemas(raml, raml.getResources(), schemas);
+        return schemas;
+    }
+
+    private static void addSchemas(Raml raml, Map<String, Resource> resources, Set<String> schemas) {
+        for (Resource resource : resources.values()) {
+            for (Action action : resource.getActions().values()) {
+                addBodySchemas(raml, action.getBody(), schemas);
+                for (Response response : action.getResponses().values()) {
+                    addBodySchemas(raml, response.getBody(), schemas);
+                }
+            }
+            addSchemas(raml, resource.getResources(), schemas);
+        }
+    }
+
+    private static void addBodySchemas(Raml raml, Map<String, MimeType> bodies, Set<String> schemas) {
+        if (bodies != null) {
+            for (MimeType mimeType : bodies.values()) {
+                final String schema = mimeType.getSchema();
+                if (schema != null && (raml.getConsolidatedSchemas() == null || !raml.getConsolidatedSchemas().containsKey(schema))) {
+                    schemas.add(schema);
+                }
+            }
+        }
+    }
+
+    private void prefetchReferences(String schema) {
+        prefetch(JSON_REF.matcher(schema), true);
+        prefetch(XSD_LOCATION.matcher(schema), false);
+    }
+
+    private void prefetch(Matcher matcher, boolean json) {
+        while (matcher.find()) {
+            final String ref = matcher.group(1);
+            if (ref.contains("://")) {
+                continue;
+            }
+            //the json schema validator resolves relative references to an absolute path
+            final String name = json && !ref.startsWith("/") ? "/" + ref : ref;
+            if (fetched.add(name)) {
+                try {
+                    prefetchReferences(new String(IoUtils.readIntoByteArray(loader.fetchResource(name)), UTF_8));
+                } catch (IOException | RamlLoader.ResourceNotFoundException e) {
+                    log.info("Could not prefetch schema reference '{}': {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -40,7 +40,7 @@ class SchemaValidators {
     }
 
     public static SchemaValidators standard() {
-        return new SchemaValidators(Arrays.asList(new RestassuredSchemaValidator(), new JavaXmlSchemaValidator()));
+        return new SchemaValidators(Arrays.<SchemaValidator>asList(new RestassuredSchemaValidator(), new JavaXmlSchemaValidator()));
     }
 
     public SchemaValidators addSchemaValidator(SchemaValidator schemaValidator) {
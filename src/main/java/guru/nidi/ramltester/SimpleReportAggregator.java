@@ -25,27 +25,29 @@ import java.util.List;
  *
  */
 public class SimpleReportAggregator implements ReportAggregator, UsageProvider {
+    private String definitionTitle;
     private Raml raml;
-    private List<RamlReport> reports = new ArrayList<>();
+    private final List<RamlReport> reports = new ArrayList<>();
 
     @Override
-    public RamlReport addReport(RamlReport report) {
+    public synchronized RamlReport addReport(RamlReport report) {
         if (report != null) {
-            if (raml == null) {
-                raml = report.getRaml();
-            } else if (!raml.getTitle().equals(report.getRaml().getTitle())) {
+            if (definitionTitle == null) {
+                definitionTitle = report.getDefinitionTitle();
+            } else if (!definitionTitle.equals(report.getDefinitionTitle())) {
                 throw new IllegalArgumentException("This aggregator can only be used with one RamlDefinition. To work with multiple RamlDefinitions, use MultiReportAggregator.");
             }
+            raml = report.getRaml();
             reports.add(report);
         }
         return report;
     }
 
-    public List<RamlReport> getReports() {
-        return reports;
+    public synchronized List<RamlReport> getReports() {
+        return new ArrayList<>(reports);
     }
 
-    public Usage getUsage() {
-        return UsageBuilder.usage(raml, getReports());
+    public synchronized Usage getUsage() {
+        return UsageBuilder.usage(raml, reports);
     }
 }
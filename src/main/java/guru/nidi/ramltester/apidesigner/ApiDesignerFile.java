@@ -28,6 +28,7 @@ public class ApiDesignerFile implements RepositoryEntry {
     private String name;
     private String path;
     private String contents;
+    private boolean decoded;
 
     public String getName() {
         return name;
@@ -50,16 +51,22 @@ public class ApiDesignerFile implements RepositoryEntry {
         this.path = path;
     }
 
-    public String getContents() {
+    public synchronized String getContents() {
+        //decode lazily, most files of a workspace are never used
+        if (!decoded && contents != null) {
+            try {
+                contents = URLDecoder.decode(contents, "utf-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new AssertionError(e);
+            }
+        }
+        decoded = true;
         return contents;
     }
 
-    public void setContents(String contents) {
-        try {
-            this.contents = URLDecoder.decode(contents, "utf-8");
-        } catch (UnsupportedEncodingException e) {
-            throw new AssertionError(e);
-        }
+    public synchronized void setContents(String contents) {
+        this.contents = contents;
+        decoded = false;
     }
 
     @Override
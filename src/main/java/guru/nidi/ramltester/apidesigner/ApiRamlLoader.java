@@ -19,25 +19,49 @@ import guru.nidi.ramltester.loader.*;
 import org.apache.http.NameValuePair;
 import org.apache.http.message.BasicNameValuePair;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
  *
  */
 public class ApiRamlLoader extends RepositoryRamlLoader {
+    private final boolean urlEncoded;
+
     public ApiRamlLoader(String user, String password) {
-        super(new UrlRamlLoader("http://api-portal.anypoint.mulesoft.com",
+        this(user, password, null);
+    }
+
+    public ApiRamlLoader(String user, String password, File cacheDirectory) {
+        super(new UrlRamlLoader("http://api-portal.anypoint.mulesoft.com", cached(
                 new FormLoginUrlFetcher("rest/raml/v1", "ajax/apihub/login-register/form?section=login", user, password, "name", "pass") {
                     @Override
                     protected void postProcessLoginParameters(List<NameValuePair> parameters) {
                         parameters.add(new BasicNameValuePair("form_id", "user_login"));
                     }
-                }
+                }, cacheDirectory)
         ), "files", ApiPortalFilesResponse.class);
+        urlEncoded = false;
     }
 
     public ApiRamlLoader(String baseUrl) {
-        super(new UrlRamlLoader(baseUrl, new SimpleUrlFetcher()), "files", ApiDesignerFilesResponse.class);
+        this(baseUrl, (File) null);
+    }
+
+    public ApiRamlLoader(String baseUrl, File cacheDirectory) {
+        super(new UrlRamlLoader(baseUrl, cached(new SimpleUrlFetcher(), cacheDirectory)), "files", ApiDesignerFilesResponse.class);
+        urlEncoded = true;
+    }
+
+    @Override
+    protected RepositoryResponse parse(InputStream files) throws IOException {
+        return StreamingRepositoryResponse.read(files, urlEncoded);
+    }
+
+    private static UrlFetcher cached(UrlFetcher fetcher, File cacheDirectory) {
+        return cacheDirectory == null ? fetcher : new CachingUrlFetcher(fetcher, cacheDirectory);
     }
 
     public static class PortalFactory implements RamlLoaderFactory {
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.util.MediaType;
+import org.raml.model.Action;
+import org.raml.model.Resource;
+
+/**
+ * Gets notified about the progress of a check done by a {@link RamlChecker}.
+ * All durations are given in nanoseconds.
+ * Listeners are called synchronously in the checking thread, so they should return quickly.
+ */
+public interface CheckListener {
+    void checkStarted(RamlRequest request, RamlResponse response);
+
+    void resourceResolved(Resource resource);
+
+    void actionResolved(Action action);
+
+    void violationAdded(String violation, boolean requestViolation);
+
+    void schemaValidationStarted(Action action, MediaType mediaType, SchemaValidator validator, int bodySize);
+
+    void schemaValidationFinished(Action action, MediaType mediaType, SchemaValidator validator, long duration);
+
+    /**
+     * @param action the action the request has been resolved to, or null if it could not be resolved
+     */
+    void checkFinished(RamlReport report, Action action, long duration);
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.util.MediaType;
+import org.raml.model.Action;
+import org.raml.model.Resource;
+
+/**
+ * Empty implementation of {@link CheckListener} to be extended by listeners interested only in some events.
+ */
+public abstract class CheckListenerAdapter implements CheckListener {
+    @Override
+    public void checkStarted(RamlRequest request, RamlResponse response) {
+    }
+
+    @Override
+    public void resourceResolved(Resource resource) {
+    }
+
+    @Override
+    public void actionResolved(Action action) {
+    }
+
+    @Override
+    public void violationAdded(String violation, boolean requestViolation) {
+    }
+
+    @Override
+    public void schemaValidationStarted(Action action, MediaType mediaType, SchemaValidator validator, int bodySize) {
+    }
+
+    @Override
+    public void schemaValidationFinished(Action action, MediaType mediaType, SchemaValidator validator, long duration) {
+    }
+
+    @Override
+    public void checkFinished(RamlReport report, Action action, long duration) {
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+/**
+ * A SchemaValidator that keeps compiled schemas, so they can be prepared before the first validation.
+ */
+public interface CompilingSchemaValidator extends SchemaValidator {
+    /**
+     * Compile the given schema and keep it for later validations.
+     * If the schema is invalid, a violation based on the given message is added.
+     */
+    void compile(String schema, RamlViolations violations, Message message);
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.util.MediaType;
+import org.raml.model.Action;
+import org.raml.model.Resource;
+
+/**
+ *
+ */
+public class CompositeCheckListener implements CheckListener {
+    private final CheckListener[] listeners;
+
+    public CompositeCheckListener(CheckListener... listeners) {
+        this.listeners = listeners;
+    }
+
+    public static CheckListener of(CheckListener listener1, CheckListener listener2) {
+        if (listener1 == null) {
+            return listener2;
+        }
+        if (listener2 == null) {
+            return listener1;
+        }
+        return new CompositeCheckListener(listener1, listener2);
+    }
+
+    /**
+     * @return the given listener without the ConditionalCheckListeners that are currently disabled, or null if none remains.
+     */
+    public static CheckListener enabled(CheckListener listener) {
+        if (listener instanceof CompositeCheckListener) {
+            return ((CompositeCheckListener) listener).enabled();
+        }
+        if (listener instanceof ConditionalCheckListener && !((ConditionalCheckListener) listener).isEnabled()) {
+            return null;
+        }
+        return listener;
+    }
+
+    private CheckListener enabled() {
+        CheckListener res = null;
+        boolean all = true;
+        for (CheckListener listener : listeners) {
+            final CheckListener enabled = enabled(listener);
+            all &= enabled == listener;
+            res = of(res, enabled);
+        }
+        return all ? this : res;
+    }
+
+    @Override
+    public void checkStarted(RamlRequest request, RamlResponse response) {
+        for (CheckListener listener : listeners) {
+            listener.checkStarted(request, response);
+        }
+    }
+
+    @Override
+    public void resourceResolved(Resource resource) {
+        for (CheckListener listener : listeners) {
+            listener.resourceResolved(resource);
+        }
+    }
+
+    @Override
+    public void actionResolved(Action action) {
+        for (CheckListener listener : listeners) {
+            listener.actionResolved(action);
+        }
+    }
+
+    @Override
+    public void violationAdded(String violation, boolean requestViolation) {
+        for (CheckListener listener : listeners) {
+            listener.violationAdded(violation, requestViolation);
+        }
+    }
+
+    @Override
+    public void schemaValidationStarted(Action action, MediaType mediaType, SchemaValidator validator, int bodySize) {
+        for (CheckListener listener : listeners) {
+            listener.schemaValidationStarted(action, mediaType, validator, bodySize);
+        }
+    }
+
+    @Override
+    public void schemaValidationFinished(Action action, MediaType mediaType, SchemaValidator validator, long duration) {
+        for (CheckListener listener : listeners) {
+            listener.schemaValidationFinished(action, mediaType, validator, duration);
+        }
+    }
+
+    @Override
+    public void checkFinished(RamlReport report, Action action, long duration) {
+        for (CheckListener listener : listeners) {
+            listener.checkFinished(report, action, duration);
+        }
+    }
+}
@@ -28,16 +28,20 @@ import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *
  */
-public class JavaXmlSchemaValidator implements SchemaValidator {
+public class JavaXmlSchemaValidator implements CompilingSchemaValidator, StreamingSchemaValidator {
     private static final MediaType APPLICATION_XML = MediaType.valueOf("application/xml");
     private static final MediaType TEXT_XML = MediaType.valueOf("text/xml");
 
     private final RamlLoader resourceLoader;
+    private final ConcurrentMap<String, Schema> compiled = new ConcurrentHashMap<>();
 
     private JavaXmlSchemaValidator(RamlLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
@@ -57,15 +61,46 @@ public class JavaXmlSchemaValidator implements SchemaValidator {
         return mediaType.isCompatibleWith(TEXT_XML) || mediaType.isCompatibleWith(APPLICATION_XML);
     }
 
+    @Override
+    public void compile(String schema, RamlViolations violations, Message message) {
+        try {
+            compiledSchema(schema);
+        } catch (SAXException e) {
+            violations.add(message.withParam(e.getMessage()));
+        }
+    }
+
+    private Schema compiledSchema(String schema) throws SAXException {
+        Schema s = compiled.get(schema);
+        if (s == null) {
+            final boolean shared = !schema.contains("schemaLocation");
+            if (shared) {
+                s = SchemaRegistry.getCompiled(JavaXmlSchemaValidator.class, schema, Schema.class);
+            }
+            if (s == null) {
+                final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+                schemaFactory.setResourceResolver(new RamlLoaderLSResourceResolver(resourceLoader));
+                s = schemaFactory.newSchema(new StreamSource(new StringReader(schema)));
+                if (shared) {
+                    s = SchemaRegistry.putCompiled(JavaXmlSchemaValidator.class, schema, s);
+                }
+            }
+            compiled.putIfAbsent(schema, s);
+        }
+        return s;
+    }
+
     @Override
     public void validate(String content, String schema, RamlViolations violations, Message message) {
-        final SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        validate(new StringReader(content), schema, violations, message);
+    }
+
+    @Override
+    public void validate(Reader content, String schema, RamlViolations violations, Message message) {
         try {
-            schemaFactory.setResourceResolver(new RamlLoaderLSResourceResolver(resourceLoader));
-            final Schema s = schemaFactory.newSchema(new StreamSource(new StringReader(schema)));
-            final Validator validator = s.newValidator();
+            final Validator validator = compiledSchema(schema).newValidator();
             validator.setErrorHandler(new ViolationsWritingErrorHandler(violations, message));
-            validator.validate(new StreamSource(new StringReader(content)));
+            validator.validate(new StreamSource(content));
         } catch (SAXException | IOException e) {
             violations.add(message.withParam(e.getMessage()));
         }
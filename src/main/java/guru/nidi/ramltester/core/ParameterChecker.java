@@ -15,7 +15,7 @@
  */
 package guru.nidi.ramltester.core;
 
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import guru.nidi.ramltester.util.FileValue;
 import org.raml.model.ParamType;
 import org.raml.model.parameter.AbstractParam;
@@ -67,7 +67,7 @@ class ParameterChecker {
         return new ParameterChecker(violations, acceptUndefined, acceptWildcard, predefined);
     }
 
-    public Set<String> checkParameters(Map<String, ? extends AbstractParam> params, Values values, Message message) {
+    public Set<String> checkParameters(Map<String, ? extends AbstractParam> params, ReadOnlyValues values, Message message) {
         Map<String, List<? extends AbstractParam>> listParams = new HashMap<>();
         for (Map.Entry<String, ? extends AbstractParam> entry : params.entrySet()) {
             listParams.put(entry.getKey(), Collections.singletonList(entry.getValue()));
@@ -75,7 +75,7 @@ class ParameterChecker {
         return checkListParameters(listParams, values, message);
     }
 
-    public Set<String> checkListParameters(Map<String, List<? extends AbstractParam>> params, Values values, Message message) {
+    public Set<String> checkListParameters(Map<String, List<? extends AbstractParam>> params, ReadOnlyValues values, Message message) {
         Set<String> found = new HashSet<>();
         for (Map.Entry<String, List<Object>> entry : values) {
             final Message namedMsg = message.withParam(entry.getKey());
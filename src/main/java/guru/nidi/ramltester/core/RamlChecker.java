@@ -18,16 +18,22 @@ package guru.nidi.ramltester.core;
 import guru.nidi.ramltester.model.RamlMessage;
 import guru.nidi.ramltester.model.RamlRequest;
 import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.model.ReadOnlyValues;
+import guru.nidi.ramltester.model.SizeLimitedMessage;
+import guru.nidi.ramltester.model.StreamingMessage;
 import guru.nidi.ramltester.model.Values;
 import guru.nidi.ramltester.util.FormDecoder;
 import guru.nidi.ramltester.util.InvalidMediaTypeException;
+import guru.nidi.ramltester.util.IoUtils;
 import guru.nidi.ramltester.util.MediaType;
 import guru.nidi.ramltester.util.UriComponents;
 import org.raml.model.*;
 import org.raml.model.parameter.AbstractParam;
 import org.raml.model.parameter.UriParameter;
 
-import java.io.UnsupportedEncodingException;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.util.*;
 
 import static guru.nidi.ramltester.core.UsageBuilder.*;
@@ -45,27 +51,56 @@ public class RamlChecker {
     private final Raml raml;
     private final List<SchemaValidator> schemaValidators;
     private final String baseUri;
-    private RamlViolations requestViolations, responseViolations;
+    private final CheckListener listener;
+    private final String definitionTitle;
+    private RamlViolations requestViolations, responseViolations, infos;
     private Usage usage;
 
-    public RamlChecker(Raml raml, List<SchemaValidator> schemaValidators, String baseUri) {
+    public RamlChecker(Raml raml, List<SchemaValidator> schemaValidators, String baseUri, CheckListener listener, String definitionTitle) {
         this.raml = raml;
         this.schemaValidators = schemaValidators;
         this.baseUri = baseUri;
+        this.listener = listener;
+        this.definitionTitle = definitionTitle;
+    }
+
+    public RamlChecker(Raml raml, List<SchemaValidator> schemaValidators, String baseUri, CheckListener listener) {
+        this(raml, schemaValidators, baseUri, listener, raml.getTitle());
+    }
+
+    public RamlChecker(Raml raml, List<SchemaValidator> schemaValidators, String baseUri) {
+        this(raml, schemaValidators, baseUri, null);
     }
 
     public RamlReport check(RamlRequest request, RamlResponse response) {
-        RamlReport report = new RamlReport(raml);
+        //the state of a check lives in its own instance, so one checker can be used by several threads
+        return new RamlChecker(raml, schemaValidators, baseUri, CompositeCheckListener.enabled(listener), definitionTitle).doCheck(request, response);
+    }
+
+    private RamlReport doCheck(RamlRequest request, RamlResponse response) {
+        final long start = listener == null ? 0 : System.nanoTime();
+        RamlReport report = new RamlReport(raml, definitionTitle);
         usage = report.getUsage();
         requestViolations = report.getRequestViolations();
         responseViolations = report.getResponseViolations();
+        infos = report.getInfos();
+        if (listener != null) {
+            requestViolations.setListener(listener, true);
+            responseViolations.setListener(listener, false);
+            listener.checkStarted(request, response);
+        }
+        Action action = null;
         try {
-            Action action = checkRequestAndFindAction(request);
+            action = checkRequestAndFindAction(request);
             if (response != null) {
                 checkResponse(action, response);
             }
         } catch (RamlViolationException e) {
             //ignore, results are in report
+        } finally {
+            if (listener != null) {
+                listener.checkFinished(report, action, System.nanoTime() - start);
+            }
         }
         return report;
     }
@@ -83,8 +118,14 @@ public class RamlChecker {
 
         Resource resource = findResource(pathMatch.getSuffix());
         resourceUsage(usage, resource).incUses(1);
+        if (listener != null) {
+            listener.resourceResolved(resource);
+        }
         Action action = findAction(resource, request.getMethod());
         actionUsage(usage, action).incUses(1);
+        if (listener != null) {
+            listener.actionResolved(action);
+        }
 
         checkProtocol(action, requestUri, ramlUri);
         checkBaseUriParameters(hostMatch, pathMatch, action);
@@ -94,15 +135,15 @@ public class RamlChecker {
         final Type type = findType(requestViolations, action, request, action.getBody(), "");
         if (type != null) {
             if (FormDecoder.supportsFormParameters(type.media)) {
-                checkFormParameters(action, request.getFormValues(), type.mime);
+                checkFormParameters(action, request, type.mime);
             } else {
-                checkSchema(requestViolations, action, request.getContent(), type, "");
+                checkSchema(requestViolations, action, request, type, "");
             }
         }
         return action;
     }
 
-    private void checkFormParameters(Action action, Values values, MimeType mimeType) {
+    private void checkFormParameters(Action action, RamlRequest request, MimeType mimeType) {
         if (mimeType.getSchema() != null) {
             requestViolations.add("schema.superfluous", action, mimeType);
         }
@@ -110,8 +151,10 @@ public class RamlChecker {
         final Map<String, List<? extends AbstractParam>> formParameters = (Map) mimeType.getFormParameters();
         if (formParameters == null) {
             requestViolations.add("formParameters.missing", action, mimeType);
+        } else if (isContentTooLarge(request)) {
+            infos.add("formParameters.skipped", action, mimeType);
         } else {
-            checkFormParametersValues(action, mimeType, values, formParameters);
+            checkFormParametersValues(action, mimeType, request.getFormValues(), formParameters);
         }
     }
 
@@ -131,7 +174,7 @@ public class RamlChecker {
     }
 
 
-    private void checkRequestHeaderParameters(Values values, Action action) {
+    private void checkRequestHeaderParameters(ReadOnlyValues values, Action action) {
         actionUsage(usage, action).addRequestHeaders(
                 new ParameterChecker(requestViolations).acceptWildcard().predefined(DefaultHeaders.REQUEST)
                         .checkParameters(action.getHeaders(), values, new Message("headerParam", action))
@@ -296,7 +339,7 @@ public class RamlChecker {
 
         final String detail = new Message("response", response.getStatus()).toString();
         final Type type = findType(responseViolations, action, response, res.getBody(), detail);
-        checkSchema(responseViolations, action, response.getContent(), type, detail);
+        checkSchema(responseViolations, action, response, type, detail);
     }
 
     private Type findType(RamlViolations violations, Action action, RamlMessage message, Map<String, MimeType> bodies, String detail) {
@@ -328,7 +371,7 @@ public class RamlChecker {
         }
     }
 
-    private void checkSchema(RamlViolations violations, Action action, byte[] body, Type type, String detail) {
+    private void checkSchema(RamlViolations violations, Action action, RamlMessage message, Type type, String detail) {
         if (type == null) {
             return;
         }
@@ -336,28 +379,122 @@ public class RamlChecker {
         if (schema == null) {
             return;
         }
+        if (isContentTooLarge(message)) {
+            infos.add("schema.skipped", action, detail, type.mime);
+            return;
+        }
         final SchemaValidator validator = findSchemaValidator(type.media);
         if (validator == null) {
             violations.add("schemaValidator.missing", type.media, action, detail);
             return;
         }
+        final String refSchema = raml.getConsolidatedSchemas().get(schema);
+        final String schemaToUse = refSchema != null ? refSchema : schema;
+        final String charset = type.media.getCharset("iso-8859-1");
+        if (message instanceof StreamingMessage && validator instanceof StreamingSchemaValidator) {
+            checkStreamingSchema(violations, action, (StreamingMessage) message, type, detail, (StreamingSchemaValidator) validator, schemaToUse, charset);
+            return;
+        }
+        final byte[] body = message.getContent();
         if (body.length == 0) {
             violations.add("body.empty", type.media, action, detail);
             return;
         }
 
-        final String charset = type.media.getCharset("iso-8859-1");
         try {
             final String content = new String(body, charset);
-            final String refSchema = raml.getConsolidatedSchemas().get(schema);
-            final String schemaToUse = refSchema != null ? refSchema : schema;
-            validator.validate(content, schemaToUse, violations, new Message("schema.mismatch", action, detail, type.mime, content));
+            validate(violations, action, type.media, validator, body.length, content, schemaToUse, new Message("schema.mismatch", action, detail, type.mime, content));
         } catch (UnsupportedEncodingException e) {
             violations.add("charset.invalid", charset);
         }
     }
 
-    private void checkResponseHeaderParameters(Values values, Action action, String responseCode, Response response) {
+    private void checkStreamingSchema(RamlViolations violations, Action action, StreamingMessage message, Type type, String detail, StreamingSchemaValidator validator, String schema, String charset) {
+        final long size = message.getTransferredSize();
+        if (size == 0) {
+            violations.add("body.empty", type.media, action, detail);
+            return;
+        }
+        if (!isSupported(charset)) {
+            violations.add("charset.invalid", charset);
+            return;
+        }
+        final Message mismatch = new Message("schema.mismatch", action, detail, type.mime, new LazyContent(message, charset));
+        final int bodySize = (int) Math.min(size, Integer.MAX_VALUE);
+        try (final PushbackInputStream in = new PushbackInputStream(message.getContentStream())) {
+            //an encoded body can be empty after decoding
+            final int first = in.read();
+            if (first < 0) {
+                violations.add("body.empty", type.media, action, detail);
+                return;
+            }
+            in.unread(first);
+            final Reader content = new InputStreamReader(in, charset);
+            if (listener == null) {
+                validator.validate(content, schema, violations, mismatch);
+            } else {
+                listener.schemaValidationStarted(action, type.media, validator, bodySize);
+                final long start = System.nanoTime();
+                try {
+                    validator.validate(content, schema, violations, mismatch);
+                } finally {
+                    listener.schemaValidationFinished(action, type.media, validator, System.nanoTime() - start);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read content", e);
+        }
+    }
+
+    private boolean isSupported(String charset) {
+        try {
+            return Charset.isSupported(charset);
+        } catch (IllegalCharsetNameException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The decoded content of a message, only read when a violation message is created.
+     */
+    private static class LazyContent {
+        private final StreamingMessage message;
+        private final String charset;
+        private String content;
+
+        public LazyContent(StreamingMessage message, String charset) {
+            this.message = message;
+            this.charset = charset;
+        }
+
+        @Override
+        public String toString() {
+            if (content == null) {
+                try {
+                    content = new String(IoUtils.readIntoByteArray(message.getContentStream()), charset);
+                } catch (IOException e) {
+                    content = "";
+                }
+            }
+            return content;
+        }
+    }
+
+    private void validate(RamlViolations violations, Action action, MediaType mediaType, SchemaValidator validator, int bodySize, String content, String schema, Message message) {
+        if (listener == null) {
+            validator.validate(content, schema, violations, message);
+        } else {
+            listener.schemaValidationStarted(action, mediaType, validator, bodySize);
+            final long start = System.nanoTime();
+            try {
+                validator.validate(content, schema, violations, message);
+            } finally {
+                listener.schemaValidationFinished(action, mediaType, validator, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void checkResponseHeaderParameters(ReadOnlyValues values, Action action, String responseCode, Response response) {
         responseUsage(usage, action, responseCode).addResponseHeaders(
                 new ParameterChecker(responseViolations).acceptWildcard().predefined(DefaultHeaders.RESPONSE)
                         .checkParameters(response.getHeaders(), values, new Message("headerParam", action))
@@ -384,9 +521,30 @@ public class RamlChecker {
     }
 
     private boolean hasContent(RamlMessage message) {
+        if (isContentTooLarge(message)) {
+            return true;
+        }
+        if (message instanceof StreamingMessage) {
+            return !isEmpty((StreamingMessage) message);
+        }
         return message.getContent() != null && message.getContent().length > 0;
     }
 
+    private boolean isEmpty(StreamingMessage message) {
+        if (message.getTransferredSize() == 0) {
+            return true;
+        }
+        try (final InputStream in = message.getContentStream()) {
+            return in.read() < 0;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read content", e);
+        }
+    }
+
+    private boolean isContentTooLarge(RamlMessage message) {
+        return message instanceof SizeLimitedMessage && ((SizeLimitedMessage) message).isContentTooLarge();
+    }
+
     private boolean existSchemalessBody(Map<String, MimeType> bodies) {
         for (MimeType mimeType : bodies.values()) {
             if (mimeType.getSchema() == null) {
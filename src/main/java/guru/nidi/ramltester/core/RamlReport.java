@@ -22,12 +22,19 @@ import org.raml.model.Raml;
  */
 public class RamlReport {
     private final Raml raml;
+    private final String definitionTitle;
     private final Usage usage = new Usage();
     private final RamlViolations requestViolations = new RamlViolations();
     private final RamlViolations responseViolations = new RamlViolations();
+    private final RamlViolations infos = new RamlViolations();
 
     public RamlReport(Raml raml) {
+        this(raml, raml.getTitle());
+    }
+
+    public RamlReport(Raml raml, String definitionTitle) {
         this.raml = raml;
+        this.definitionTitle = definitionTitle;
     }
 
     public boolean isEmpty() {
@@ -50,6 +57,14 @@ public class RamlReport {
         return raml;
     }
 
+    /**
+     * @return the title that identifies the definition this report was checked against.
+     * Differs from the title of {@link #getRaml()} when a reloaded raml changed its title.
+     */
+    public String getDefinitionTitle() {
+        return definitionTitle;
+    }
+
     public RamlViolations getRequestViolations() {
         return requestViolations;
     }
@@ -57,4 +72,11 @@ public class RamlReport {
     public RamlViolations getResponseViolations() {
         return responseViolations;
     }
+
+    /**
+     * @return remarks about the check that are no violations, e.g. skipped validations
+     */
+    public RamlViolations getInfos() {
+        return infos;
+    }
 }
@@ -24,13 +24,33 @@ import java.util.List;
  */
 public class RamlViolations implements Iterable<String> {
     private final List<String> violations;
+    private CheckListener listener;
+    private boolean requestViolations;
 
     RamlViolations() {
         this.violations = new ArrayList<>();
     }
 
+    void setListener(CheckListener listener, boolean requestViolations) {
+        this.listener = listener;
+        this.requestViolations = requestViolations;
+    }
+
     public void add(Message message) {
-        violations.add(message.toString());
+        final String violation = message.toString();
+        violations.add(violation);
+        if (listener != null) {
+            listener.violationAdded(violation, requestViolations);
+        }
+    }
+
+    void addAll(RamlViolations violations) {
+        for (String violation : violations) {
+            this.violations.add(violation);
+            if (listener != null) {
+                listener.violationAdded(violation, requestViolations);
+            }
+        }
     }
 
     void add(String key, Object... params) {
@@ -15,43 +15,56 @@
  */
 package guru.nidi.ramltester.core;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.load.configuration.LoadingConfiguration;
 import com.github.fge.jsonschema.core.load.configuration.LoadingConfigurationBuilder;
 import com.github.fge.jsonschema.core.load.uri.URITranslatorConfiguration;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.jayway.restassured.module.jsv.JsonSchemaValidationException;
 import com.jayway.restassured.module.jsv.JsonSchemaValidatorSettings;
 import guru.nidi.ramltester.loader.RamlLoader;
 import guru.nidi.ramltester.loader.RamlLoaderUriDownloader;
 import guru.nidi.ramltester.util.MediaType;
-import org.hamcrest.Description;
-import org.hamcrest.Matcher;
-import org.hamcrest.StringDescription;
 
-import static com.jayway.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchema;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 /**
  *
  */
-public class RestassuredSchemaValidator implements SchemaValidator {
+public class RestassuredSchemaValidator implements CompilingSchemaValidator, StreamingSchemaValidator {
+    private static final Pattern EXTERNAL_REF = Pattern.compile("\"\\$ref\"\\s*:\\s*\"[^#]");
+
     private final JsonSchemaFactory schemaFactory;
     private final JsonSchemaValidatorSettings schemaValidatorSettings;
+    private final boolean defaultConfig;
+    private final ConcurrentMap<String, JsonSchema> compiled = new ConcurrentHashMap<>();
 
-    private RestassuredSchemaValidator(JsonSchemaFactory schemaFactory, JsonSchemaValidatorSettings schemaValidatorSettings) {
+    private RestassuredSchemaValidator(JsonSchemaFactory schemaFactory, JsonSchemaValidatorSettings schemaValidatorSettings, boolean defaultConfig) {
         this.schemaFactory = schemaFactory;
         this.schemaValidatorSettings = schemaValidatorSettings;
+        this.defaultConfig = defaultConfig;
     }
 
     public RestassuredSchemaValidator() {
-        this(null, null);
+        this(null, null, true);
     }
 
     public RestassuredSchemaValidator using(JsonSchemaFactory jsonSchemaFactory) {
-        return new RestassuredSchemaValidator(jsonSchemaFactory, null);
+        return new RestassuredSchemaValidator(jsonSchemaFactory, null, false);
     }
 
     public RestassuredSchemaValidator using(JsonSchemaValidatorSettings jsonSchemaValidatorSettings) {
-        return new RestassuredSchemaValidator(null, jsonSchemaValidatorSettings);
+        return new RestassuredSchemaValidator(null, jsonSchemaValidatorSettings, false);
     }
 
     @Override
@@ -65,30 +78,82 @@ public class RestassuredSchemaValidator implements SchemaValidator {
         final String simpleName = resourceLoader.getClass().getSimpleName();
         loadingConfig.addScheme(simpleName, new RamlLoaderUriDownloader(resourceLoader));
         loadingConfig.setURITranslatorConfiguration(URITranslatorConfiguration.newBuilder().setNamespace(simpleName + ":///").freeze());
-        return using(JsonSchemaFactory.newBuilder().setLoadingConfiguration(loadingConfig.freeze()).freeze());
+        return new RestassuredSchemaValidator(JsonSchemaFactory.newBuilder().setLoadingConfiguration(loadingConfig.freeze()).freeze(), null, true);
+    }
+
+    @Override
+    public void compile(String schema, RamlViolations violations, Message message) {
+        try {
+            final ProcessingReport report = factory().getSyntaxValidator().validateSchema(JsonLoader.fromString(schema));
+            if (report.isSuccess()) {
+                compiledSchema(schema);
+            } else {
+                violations.add(message.withMessageParam("restassuredSchemaValidator.schema.invalid", messages(report)));
+            }
+        } catch (IOException | ProcessingException e) {
+            violations.add(message.withMessageParam("restassuredSchemaValidator.schema.invalid", new JsonSchemaValidationException(e).getMessage()));
+        }
+    }
+
+    private JsonSchema compiledSchema(String schema) throws IOException, ProcessingException {
+        JsonSchema jsonSchema = compiled.get(schema);
+        if (jsonSchema == null) {
+            final boolean shared = defaultConfig && !EXTERNAL_REF.matcher(schema).find();
+            if (shared) {
+                jsonSchema = SchemaRegistry.getCompiled(RestassuredSchemaValidator.class, schema, JsonSchema.class);
+            }
+            if (jsonSchema == null) {
+                jsonSchema = factory().getJsonSchema(JsonLoader.fromString(schema));
+                if (shared) {
+                    jsonSchema = SchemaRegistry.putCompiled(RestassuredSchemaValidator.class, schema, jsonSchema);
+                }
+            }
+            compiled.putIfAbsent(schema, jsonSchema);
+        }
+        return jsonSchema;
     }
 
-    @SuppressWarnings("unchecked")
-    private Matcher<String> getMatcher(String data) {
+    private JsonSchemaFactory factory() {
         if (schemaFactory != null) {
-            return (Matcher<String>) matchesJsonSchema(data).using(schemaFactory);
+            return schemaFactory;
         }
         if (schemaValidatorSettings != null) {
-            return (Matcher<String>) matchesJsonSchema(data).using(schemaValidatorSettings);
+            return schemaValidatorSettings.jsonSchemaFactory();
         }
-        return matchesJsonSchema(data);
+        return JsonSchemaFactory.byDefault();
     }
 
     @Override
     public void validate(String content, String schema, RamlViolations violations, Message message) {
+        validate(new StringReader(content), schema, violations, message);
+    }
+
+    @Override
+    public void validate(Reader content, String schema, RamlViolations violations, Message message) {
         try {
-            final Matcher<String> matcher = getMatcher(schema);
-            if (!matcher.matches(content)) {
-                Description description = new StringDescription().appendDescriptionOf(matcher);
-                violations.add(message.withParam(description.toString()));
+            final JsonSchema jsonSchema = compiledSchema(schema);
+            final JsonNode node = JsonLoader.fromReader(content);
+            final ProcessingReport report = schemaValidatorSettings == null || schemaValidatorSettings.shouldUseCheckedValidation()
+                    ? jsonSchema.validate(node)
+                    : jsonSchema.validateUnchecked(node);
+            if (!report.isSuccess()) {
+                violations.add(message.withParam(describe(report)));
             }
-        } catch (JsonSchemaValidationException e) {
-            violations.add(message.withMessageParam("restassuredSchemaValidator.schema.invalid", e.getMessage()));
+        } catch (IOException | ProcessingException | RuntimeException e) {
+            violations.add(message.withMessageParam("restassuredSchemaValidator.schema.invalid", new JsonSchemaValidationException(e).getMessage()));
+        }
+    }
+
+    //same format as com.jayway.restassured.module.jsv.JsonSchemaValidator#describeTo
+    private String describe(ProcessingReport report) {
+        return "The content to match the given JSON schema.\n" + messages(report);
+    }
+
+    private String messages(ProcessingReport report) {
+        final StringBuilder s = new StringBuilder();
+        for (ProcessingMessage message : report) {
+            s.append(message.toString());
         }
+        return s.toString();
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+import guru.nidi.ramltester.util.InvalidMediaTypeException;
+import guru.nidi.ramltester.util.MediaType;
+import org.raml.model.*;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles all schemas of a raml with the CompilingSchemaValidators that would be used to validate them.
+ */
+public class SchemaCompiler {
+    private static final MediaType XML = MediaType.valueOf("application/xml");
+
+    private final Raml raml;
+    private final List<SchemaValidator> schemaValidators;
+
+    public SchemaCompiler(Raml raml, List<SchemaValidator> schemaValidators) {
+        this.raml = raml;
+        this.schemaValidators = schemaValidators;
+    }
+
+    /**
+     * @return the violations of all invalid schemas
+     */
+    public RamlViolations compile(ForkJoinPool pool) {
+        final Map<String, Task> tasks = new LinkedHashMap<>();
+        addResources(tasks, raml.getResources());
+        addNamedSchemas(tasks);
+
+        final RamlViolations violations = new RamlViolations();
+        try {
+            for (Future<RamlViolations> result : pool.invokeAll(tasks.values())) {
+                violations.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not compile schemas", e.getCause());
+        }
+        return violations;
+    }
+
+    private void addResources(Map<String, Task> tasks, Map<String, Resource> resources) {
+        for (Resource resource : resources.values()) {
+            for (Action action : resource.getActions().values()) {
+                addBodies(tasks, action, action.getBody(), "");
+                for (Map.Entry<String, Response> response : action.getResponses().entrySet()) {
+                    addBodies(tasks, action, response.getValue().getBody(), new Message("response", response.getKey()).toString());
+                }
+            }
+            addResources(tasks, resource.getResources());
+        }
+    }
+
+    private void addBodies(Map<String, Task> tasks, Action action, Map<String, MimeType> bodies, String detail) {
+        if (bodies == null) {
+            return;
+        }
+        for (Map.Entry<String, MimeType> body : bodies.entrySet()) {
+            final String schema = body.getValue().getSchema();
+            if (schema == null || body.getKey() == null) {
+                continue;
+            }
+            final MediaType mediaType;
+            try {
+                mediaType = MediaType.valueOf(body.getKey());
+            } catch (InvalidMediaTypeException e) {
+                continue;
+            }
+            final String refSchema = raml.getConsolidatedSchemas().get(schema);
+            final String schemaToUse = refSchema != null ? refSchema : schema;
+            final Message message = refSchema != null
+                    ? new Message("schema.invalid", schema)
+                    : new Message("schema.inline.invalid", action, detail, body.getValue());
+            addTask(tasks, findSchemaValidator(mediaType), schemaToUse, message);
+        }
+    }
+
+    private void addNamedSchemas(Map<String, Task> tasks) {
+        for (Map.Entry<String, String> schema : raml.getConsolidatedSchemas().entrySet()) {
+            final String content = schema.getValue().trim();
+            final MediaType mediaType = content.startsWith("<") ? XML : content.startsWith("{") ? MediaType.JSON : null;
+            if (mediaType != null) {
+                addTask(tasks, findSchemaValidator(mediaType), schema.getValue(), new Message("schema.invalid", schema.getKey()));
+            }
+        }
+    }
+
+    private void addTask(Map<String, Task> tasks, SchemaValidator validator, String schema, Message message) {
+        if (validator instanceof CompilingSchemaValidator) {
+            final String key = System.identityHashCode(validator) + ":" + schema;
+            if (!tasks.containsKey(key)) {
+                tasks.put(key, new Task((CompilingSchemaValidator) validator, schema, message));
+            }
+        }
+    }
+
+    private SchemaValidator findSchemaValidator(MediaType mediaType) {
+        for (SchemaValidator validator : schemaValidators) {
+            if (validator.supports(mediaType)) {
+                return validator;
+            }
+        }
+        return null;
+    }
+
+    private static class Task implements Callable<RamlViolations> {
+        private final CompilingSchemaValidator validator;
+        private final String schema;
+        private final Message message;
+
+        public Task(CompilingSchemaValidator validator, String schema, Message message) {
+            this.validator = validator;
+            this.schema = schema;
+            this.message = message;
+        }
+
+        @Override
+        public RamlViolations call() {
+            final RamlViolations violations = new RamlViolations();
+            validator.compile(schema, violations, message);
+            return violations;
+        }
+    }
+}
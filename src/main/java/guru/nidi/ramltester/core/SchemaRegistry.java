@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Process wide registry of strings and compiled schemas, so that definitions containing the same schemas share them.
+ * Entries are only weakly referenced and disappear when no definition uses them anymore.
+ */
+public final class SchemaRegistry {
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+    private static final Cache<Key, Object> COMPILED = CacheBuilder.newBuilder().weakValues().build();
+
+    private SchemaRegistry() {
+    }
+
+    public static String intern(String s) {
+        return s == null ? null : STRINGS.intern(s);
+    }
+
+    /**
+     * @return the schema compiled by an equivalent validator, or null
+     */
+    public static <T> T getCompiled(Class<? extends SchemaValidator> validator, String schema, Class<T> type) {
+        return type.cast(COMPILED.getIfPresent(new Key(validator, schema)));
+    }
+
+    /**
+     * Register a compiled schema. Only schemas that do not reference other resources should be registered,
+     * as references could be resolved differently by other definitions.
+     *
+     * @return the already registered compiled schema, if any, or the given one
+     */
+    public static <T> T putCompiled(Class<? extends SchemaValidator> validator, String schema, T compiled) {
+        final Key key = new Key(validator, intern(schema));
+        synchronized (COMPILED) {
+            @SuppressWarnings("unchecked")
+            final T existing = (T) COMPILED.getIfPresent(key);
+            if (existing != null) {
+                return existing;
+            }
+            COMPILED.put(key, compiled);
+            return compiled;
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> validator;
+        private final String schema;
+
+        private Key(Class<?> validator, String schema) {
+            this.validator = validator;
+            this.schema = schema;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return validator == key.validator && schema.equals(key.schema);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * validator.hashCode() + schema.hashCode();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+/**
+ * Keeps the last report visible to all threads, for checks that are executed on other threads than the requests.
+ * The reports are also passed on to the delegate, if there is one.
+ */
+public class SharedReportStore implements ReportStore {
+    private final ReportStore delegate;
+    private volatile RamlReport lastReport;
+
+    public SharedReportStore(ReportStore delegate) {
+        this.delegate = delegate;
+    }
+
+    public SharedReportStore() {
+        this(null);
+    }
+
+    @Override
+    public void storeReport(RamlReport report) {
+        lastReport = report;
+        if (delegate != null) {
+            delegate.storeReport(report);
+        }
+    }
+
+    @Override
+    public RamlReport getLastReport() {
+        return lastReport;
+    }
+}
@@ -41,10 +41,27 @@ public class Usage implements Iterable<Map.Entry<String, Usage.Resource>> {
     }
 
     public void add(Usage usage) {
+        add(usage, false);
+    }
+
+    /**
+     * Like add, but ignores resources and actions that are not already known.
+     */
+    void addKnown(Usage usage) {
+        add(usage, true);
+    }
+
+    private void add(Usage usage, boolean knownOnly) {
         for (Map.Entry<String, Resource> resourceEntry : usage) {
+            if (knownOnly && !resources.containsKey(resourceEntry.getKey())) {
+                continue;
+            }
             final Resource resource = resource(resourceEntry.getKey());
             resource.incUses(resourceEntry.getValue().getUses());
             for (Map.Entry<String, Action> actionEntry : resourceEntry.getValue()) {
+                if (knownOnly && !resource.actions.containsKey(actionEntry.getKey())) {
+                    continue;
+                }
                 final Action action = resource.action(actionEntry.getKey());
                 final Action usageAction = actionEntry.getValue();
                 action.incUses(usageAction.getUses());
@@ -47,7 +47,7 @@ public class UsageBuilder {
         final Usage usage = new Usage();
         createTotalUsage(usage, raml.getResources());
         for (RamlReport report : reports) {
-            usage.add(report.getUsage());
+            usage.addKnown(report.getUsage());
         }
         return usage;
     }
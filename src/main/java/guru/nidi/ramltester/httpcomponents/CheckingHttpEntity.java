@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.httpcomponents;
+
+import guru.nidi.ramltester.util.BodyCapture;
+import guru.nidi.ramltester.util.TeeInputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Captures the content of an entity while it is read and executes a check as soon as it has been read completely or closed.
+ */
+class CheckingHttpEntity extends HttpEntityWrapper {
+    interface Check {
+        void execute(BodyCapture content);
+    }
+
+    private final BodyCapture capture;
+    private final Check check;
+    private CapturingInputStream stream;
+    private boolean checked;
+    private boolean replay;
+
+    CheckingHttpEntity(HttpEntity entity, BodyCapture capture, Check check) {
+        super(entity);
+        this.capture = capture;
+        this.check = check;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return replay || (!checked && super.isStreaming());
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        if (replay) {
+            replay = false;
+            return new FilterInputStream(capture.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    capture.release();
+                }
+            };
+        }
+        if (checked && stream == null) {
+            throw new IllegalStateException("Content has already been consumed");
+        }
+        if (stream == null) {
+            stream = new CapturingInputStream(super.getContent());
+        }
+        return stream;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (final InputStream in = getContent()) {
+            final byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) >= 0) {
+                out.write(buf, 0, read);
+            }
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void consumeContent() throws IOException {
+        if (!checked) {
+            getContent().close();
+        }
+    }
+
+    /**
+     * Read what has not yet been read and execute the check.
+     */
+    void finish() throws IOException {
+        if (!checked) {
+            getContent().close();
+        }
+    }
+
+    /**
+     * If the content has not been read yet, read it and execute the check.
+     * The content can still be read afterwards, unless it exceeded the capture limits.
+     * If the content cannot be read anymore, e.g. because the response has been closed,
+     * the check is executed without it.
+     */
+    void finishUnread() {
+        if (!checked && stream == null) {
+            replay = true;
+            try {
+                stream = new CapturingInputStream(super.getContent());
+                stream.close();
+            } catch (IOException e) {
+                capture.discard();
+                done();
+            }
+            stream = null;
+            replay = !capture.isTooLarge();
+        }
+    }
+
+    private void done() {
+        if (!checked) {
+            checked = true;
+            try {
+                check.execute(capture);
+            } finally {
+                if (!replay) {
+                    capture.release();
+                }
+            }
+        }
+    }
+
+    private class CapturingInputStream extends TeeInputStream {
+        public CapturingInputStream(InputStream in) {
+            super(in, capture);
+        }
+
+        @Override
+        protected void finished() {
+            done();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
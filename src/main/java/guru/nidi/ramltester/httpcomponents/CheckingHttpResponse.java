@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.httpcomponents;
+
+import org.apache.http.*;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.params.HttpParams;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Executes a check before the response is closed, as closing a response does not go through its entity.
+ */
+class CheckingHttpResponse implements CloseableHttpResponse {
+    interface Check {
+        void execute();
+    }
+
+    private final CloseableHttpResponse delegate;
+    private final Check check;
+
+    CheckingHttpResponse(CloseableHttpResponse delegate, Check check) {
+        this.delegate = delegate;
+        this.check = check;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            check.execute();
+        } finally {
+            delegate.close();
+        }
+    }
+
+    @Override
+    public StatusLine getStatusLine() {
+        return delegate.getStatusLine();
+    }
+
+    @Override
+    public void setStatusLine(StatusLine statusline) {
+        delegate.setStatusLine(statusline);
+    }
+
+    @Override
+    public void setStatusLine(ProtocolVersion ver, int code) {
+        delegate.setStatusLine(ver, code);
+    }
+
+    @Override
+    public void setStatusLine(ProtocolVersion ver, int code, String reason) {
+        delegate.setStatusLine(ver, code, reason);
+    }
+
+    @Override
+    public void setStatusCode(int code) {
+        delegate.setStatusCode(code);
+    }
+
+    @Override
+    public void setReasonPhrase(String reason) {
+        delegate.setReasonPhrase(reason);
+    }
+
+    @Override
+    public HttpEntity getEntity() {
+        return delegate.getEntity();
+    }
+
+    @Override
+    public void setEntity(HttpEntity entity) {
+        delegate.setEntity(entity);
+    }
+
+    @Override
+    public Locale getLocale() {
+        return delegate.getLocale();
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        delegate.setLocale(loc);
+    }
+
+    @Override
+    public ProtocolVersion getProtocolVersion() {
+        return delegate.getProtocolVersion();
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return delegate.containsHeader(name);
+    }
+
+    @Override
+    public Header[] getHeaders(String name) {
+        return delegate.getHeaders(name);
+    }
+
+    @Override
+    public Header getFirstHeader(String name) {
+        return delegate.getFirstHeader(name);
+    }
+
+    @Override
+    public Header getLastHeader(String name) {
+        return delegate.getLastHeader(name);
+    }
+
+    @Override
+    public Header[] getAllHeaders() {
+        return delegate.getAllHeaders();
+    }
+
+    @Override
+    public void addHeader(Header header) {
+        delegate.addHeader(header);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        delegate.addHeader(name, value);
+    }
+
+    @Override
+    public void setHeader(Header header) {
+        delegate.setHeader(header);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        delegate.setHeader(name, value);
+    }
+
+    @Override
+    public void setHeaders(Header[] headers) {
+        delegate.setHeaders(headers);
+    }
+
+    @Override
+    public void removeHeader(Header header) {
+        delegate.removeHeader(header);
+    }
+
+    @Override
+    public void removeHeaders(String name) {
+        delegate.removeHeaders(name);
+    }
+
+    @Override
+    public HeaderIterator headerIterator() {
+        return delegate.headerIterator();
+    }
+
+    @Override
+    public HeaderIterator headerIterator(String name) {
+        return delegate.headerIterator(name);
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+        return delegate.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public void setParams(HttpParams params) {
+        delegate.setParams(params);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
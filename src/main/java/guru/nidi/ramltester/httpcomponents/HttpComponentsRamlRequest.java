@@ -16,6 +16,7 @@
 package guru.nidi.ramltester.httpcomponents;
 
 import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import guru.nidi.ramltester.model.Values;
 import guru.nidi.ramltester.util.FormDecoder;
 import guru.nidi.ramltester.util.UriComponents;
@@ -33,10 +34,12 @@ public class HttpComponentsRamlRequest implements RamlRequest {
     private final String path;
     private final String url;
     private final HttpRequest request;
+    private UriComponents uriComponents;
+    private byte[] content;
 
     public HttpComponentsRamlRequest(HttpHost host, HttpRequest request) {
         this.request = request;
-        path = UriComponents.fromHttpUrl(request.getRequestLine().getUri()).getPath();
+        path = uriComponents().getPath();
         url = host.toString() + request.getRequestLine().getUri();
     }
 
@@ -51,6 +54,10 @@ public class HttpComponentsRamlRequest implements RamlRequest {
         return baseUri != null ? (baseUri + path) : url;
     }
 
+    String getPath() {
+        return path;
+    }
+
     @Override
     public String getMethod() {
         return request.getRequestLine().getMethod();
@@ -58,8 +65,14 @@ public class HttpComponentsRamlRequest implements RamlRequest {
 
     @Override
     public Values getQueryValues() {
-        final UriComponents uriComponents = UriComponents.fromHttpUrl(request.getRequestLine().getUri());
-        return uriComponents.getQueryParameters();
+        return uriComponents().getQueryParameters();
+    }
+
+    private UriComponents uriComponents() {
+        if (uriComponents == null) {
+            uriComponents = UriComponents.fromHttpUrl(request.getRequestLine().getUri());
+        }
+        return uriComponents;
     }
 
     @Override
@@ -68,7 +81,7 @@ public class HttpComponentsRamlRequest implements RamlRequest {
     }
 
     @Override
-    public Values getHeaderValues() {
+    public ReadOnlyValues getHeaderValues() {
         return headerValuesOf(request);
     }
 
@@ -79,8 +92,9 @@ public class HttpComponentsRamlRequest implements RamlRequest {
 
     @Override
     public byte[] getContent() {
-        return (request instanceof HttpEntityEnclosingRequest)
-                ? contentOf(buffered((HttpEntityEnclosingRequest) request).getEntity())
-                : null;
+        if (content == null && request instanceof HttpEntityEnclosingRequest) {
+            content = contentOf(buffered((HttpEntityEnclosingRequest) request).getEntity());
+        }
+        return content;
     }
 }
@@ -16,19 +16,33 @@
 package guru.nidi.ramltester.httpcomponents;
 
 import guru.nidi.ramltester.model.RamlResponse;
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.model.ReadOnlyValues;
+import guru.nidi.ramltester.model.SizeLimitedMessage;
+import guru.nidi.ramltester.util.BodyCapture;
 import org.apache.http.HttpResponse;
 
+import java.io.IOException;
+
 import static guru.nidi.ramltester.httpcomponents.HttpComponentsUtils.*;
 
 /**
  *
  */
-public class HttpComponentsRamlResponse implements RamlResponse {
-    private HttpResponse response;
+public class HttpComponentsRamlResponse implements RamlResponse, SizeLimitedMessage {
+    private final HttpResponse response;
+    private final BodyCapture capture;
+    private byte[] content;
 
     public HttpComponentsRamlResponse(HttpResponse response) {
+        this(response, null);
+    }
+
+    /**
+     * @param capture the already captured content of the response
+     */
+    HttpComponentsRamlResponse(HttpResponse response, BodyCapture capture) {
         this.response = response;
+        this.capture = capture;
     }
 
     @Override
@@ -43,11 +57,27 @@ public class HttpComponentsRamlResponse implements RamlResponse {
 
     @Override
     public byte[] getContent() {
-        return contentOf(buffered(response).getEntity());
+        if (content == null) {
+            content = capture == null ? contentOf(buffered(response).getEntity()) : captured();
+        }
+        return content;
+    }
+
+    private byte[] captured() {
+        try {
+            return capture.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not get response content", e);
+        }
+    }
+
+    @Override
+    public boolean isContentTooLarge() {
+        return capture != null && capture.isTooLarge();
     }
 
     @Override
-    public Values getHeaderValues() {
+    public ReadOnlyValues getHeaderValues() {
         return headerValuesOf(response);
     }
 }
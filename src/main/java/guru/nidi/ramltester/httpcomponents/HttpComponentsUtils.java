@@ -15,12 +15,14 @@
  */
 package guru.nidi.ramltester.httpcomponents;
 
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.model.HeaderValues;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import guru.nidi.ramltester.util.IoUtils;
 import org.apache.http.*;
 import org.apache.http.entity.BufferedHttpEntity;
 
 import java.io.IOException;
+import java.util.*;
 
 /**
  *
@@ -38,12 +40,39 @@ class HttpComponentsUtils {
         return contentType == null ? null : contentType.getValue();
     }
 
-    static Values headerValuesOf(HttpMessage message) {
-        Values headers = new Values();
-        for (Header header : message.getAllHeaders()) {
-            headers.addValue(header.getName(), header.getValue());
-        }
-        return headers;
+    static ReadOnlyValues headerValuesOf(final HttpMessage message) {
+        return new HeaderValues() {
+            private List<String> names;
+
+            @Override
+            protected Iterator<String> headerNames() {
+                if (names == null) {
+                    final Set<String> seen = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                    final List<String> distinct = new ArrayList<>();
+                    for (final HeaderIterator it = message.headerIterator(); it.hasNext(); ) {
+                        final String name = it.nextHeader().getName();
+                        if (seen.add(name)) {
+                            distinct.add(name);
+                        }
+                    }
+                    names = Collections.unmodifiableList(distinct);
+                }
+                return names.iterator();
+            }
+
+            @Override
+            protected List<Object> headerValues(String name) {
+                final Header[] headers = message.getHeaders(name);
+                if (headers.length == 0) {
+                    return null;
+                }
+                final Object[] values = new Object[headers.length];
+                for (int i = 0; i < headers.length; i++) {
+                    values[i] = headers[i].getValue();
+                }
+                return Arrays.asList(values);
+            }
+        };
     }
 
     static BufferedHttpEntity buffered(HttpEntity entity) {
@@ -72,7 +101,7 @@ class HttpComponentsUtils {
 
     static byte[] contentOf(HttpEntity entity) {
         try {
-            return IoUtils.readIntoByteArray(entity.getContent());
+            return IoUtils.readIntoByteArray(entity.getContent(), entity.getContentLength());
         } catch (IOException e) {
             throw new RuntimeException("Could not get response content", e);
         }
@@ -16,9 +16,12 @@
 package guru.nidi.ramltester.httpcomponents;
 
 import guru.nidi.ramltester.core.*;
+import guru.nidi.ramltester.util.BodyCapture;
+import guru.nidi.ramltester.util.CaptureLimits;
 import org.apache.http.*;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -35,19 +38,28 @@ import java.io.IOException;
  *
  */
 public class RamlHttpClient implements HttpClient, Closeable {
-    private static final String RAML_TESTED = "raml.tested";
+    private static final String RAML_EXCHANGE = "raml.exchange";
     private static final BasicHttpResponse DUMMY_RESPONSE = new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_NO_CONTENT, "not sending");
 
     private final RamlChecker checker;
     private final boolean notSending;
     private final ReportStore reportStore;
     private final CloseableHttpClient delegate;
+    private final CaptureLimits limits;
+    private final ThreadLocal<Exchange> exchanges;
 
-    public RamlHttpClient(RamlChecker checker, boolean notSending, ReportStore reportStore, CloseableHttpClient delegate) {
+    private RamlHttpClient(RamlChecker checker, boolean notSending, ReportStore reportStore, CloseableHttpClient delegate,
+                           CaptureLimits limits, ThreadLocal<Exchange> exchanges) {
         this.checker = checker;
         this.notSending = notSending;
         this.reportStore = reportStore;
         this.delegate = delegate;
+        this.limits = limits;
+        this.exchanges = exchanges;
+    }
+
+    public RamlHttpClient(RamlChecker checker, boolean notSending, ReportStore reportStore, CloseableHttpClient delegate) {
+        this(checker, notSending, reportStore, delegate, CaptureLimits.unlimited(), new ThreadLocal<Exchange>());
     }
 
     public RamlHttpClient(RamlChecker checker) {
@@ -59,34 +71,44 @@ public class RamlHttpClient implements HttpClient, Closeable {
     }
 
     public RamlHttpClient notSending() {
-        return new RamlHttpClient(checker, true, reportStore, delegate);
+        return new RamlHttpClient(checker, true, reportStore, delegate, limits, exchanges);
     }
 
     public RamlHttpClient aggregating(ReportAggregator aggregator) {
-        return new RamlHttpClient(checker, notSending, new AggregatingReportStore(reportStore, aggregator), delegate);
+        return new RamlHttpClient(checker, notSending, new AggregatingReportStore(reportStore, aggregator), delegate, limits, exchanges);
     }
 
+    /**
+     * Capture response bodies only up to the given limits.
+     * The schemas of bodies that exceed the limits are not validated.
+     */
+    public RamlHttpClient capturing(CaptureLimits limits) {
+        return new RamlHttpClient(checker, notSending, reportStore, delegate, limits, exchanges);
+    }
+
+    /**
+     * If the content of the last response has not been read yet, it is read and checked now.
+     * It can still be read afterwards, unless it exceeded the capture limits.
+     */
     public RamlReport getLastReport() {
+        final Exchange exchange = exchanges.get();
+        if (exchange != null) {
+            exchange.finishUnread();
+        }
         return reportStore.getLastReport();
     }
 
     @Override
     public HttpResponse execute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
-        reportStore.storeReport(null);
+        final Exchange exchange = startExchange(context);
         final HttpComponentsRamlRequest ramlRequest = new HttpComponentsRamlRequest(target, request);
-        final HttpResponse response;
-        final RamlReport report;
         if (notSending) {
-            response = DUMMY_RESPONSE;
-            report = checker.check(ramlRequest);
-        } else {
-            response = delegate.execute(target, request, context);
-            report = checker.check(ramlRequest, new HttpComponentsRamlResponse(response));
-        }
-        if (!alreadyTested(context)) {
-            reportStore.storeReport(report);
+            exchange.storeReport(checker.check(ramlRequest));
+            return DUMMY_RESPONSE;
         }
-        return response;
+        final HttpResponse response = delegate.execute(target, request, context);
+        exchange.unread = checking(ramlRequest, response, exchange);
+        return closing(response, exchange);
     }
 
     @Override
@@ -96,21 +118,15 @@ public class RamlHttpClient implements HttpClient, Closeable {
 
     @Override
     public HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
-        reportStore.storeReport(null);
+        final Exchange exchange = startExchange(context);
         final HttpComponentsRamlRequest ramlRequest = new HttpComponentsRamlRequest(request);
-        final HttpResponse response;
-        final RamlReport report;
         if (notSending) {
-            response = DUMMY_RESPONSE;
-            report = checker.check(ramlRequest);
-        } else {
-            response = delegate.execute(request, context);
-            report = checker.check(ramlRequest, new HttpComponentsRamlResponse(response));
-        }
-        if (!alreadyTested(context)) {
-            reportStore.storeReport(report);
+            exchange.storeReport(checker.check(ramlRequest));
+            return DUMMY_RESPONSE;
         }
-        return response;
+        final HttpResponse response = delegate.execute(request, context);
+        exchange.unread = checking(ramlRequest, response, exchange);
+        return closing(response, exchange);
     }
 
     @Override
@@ -120,26 +136,34 @@ public class RamlHttpClient implements HttpClient, Closeable {
 
     @Override
     public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
-        final T response = delegate.execute(request, responseHandler);
-        return response;
+        return execute(request, responseHandler, new BasicHttpContext());
     }
 
     @Override
     public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler, HttpContext context) throws IOException {
-        final T response = delegate.execute(request, responseHandler, context);
-        return response;
+        final Exchange exchange = startExchange(context);
+        final HttpComponentsRamlRequest ramlRequest = new HttpComponentsRamlRequest(request);
+        if (notSending) {
+            exchange.storeReport(checker.check(ramlRequest));
+            return responseHandler.handleResponse(DUMMY_RESPONSE);
+        }
+        return delegate.execute(request, checking(ramlRequest, responseHandler, exchange), context);
     }
 
     @Override
     public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
-        final T response = delegate.execute(target, request, responseHandler);
-        return response;
+        return execute(target, request, responseHandler, new BasicHttpContext());
     }
 
     @Override
     public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> responseHandler, HttpContext context) throws IOException {
-        final T response = delegate.execute(target, request, responseHandler, context);
-        return response;
+        final Exchange exchange = startExchange(context);
+        final HttpComponentsRamlRequest ramlRequest = new HttpComponentsRamlRequest(target, request);
+        if (notSending) {
+            exchange.storeReport(checker.check(ramlRequest));
+            return responseHandler.handleResponse(DUMMY_RESPONSE);
+        }
+        return delegate.execute(target, request, checking(ramlRequest, responseHandler, exchange), context);
     }
 
     @Override
@@ -159,11 +183,103 @@ public class RamlHttpClient implements HttpClient, Closeable {
         delegate.close();
     }
 
-    private boolean alreadyTested(HttpContext context) {
-        if (context.getAttribute(RAML_TESTED) != null) {
-            return true;
+    /**
+     * Finish the previous exchange of this thread, a later read of its response does not store a report anymore.
+     */
+    private Exchange startExchange(HttpContext context) {
+        final Exchange previous = exchanges.get();
+        if (previous != null) {
+            previous.finishUnread();
+            previous.end();
+        }
+        final Exchange exchange = new Exchange(context);
+        exchanges.set(exchange);
+        reportStore.storeReport(null);
+        return exchange;
+    }
+
+    private <T> ResponseHandler<T> checking(final HttpComponentsRamlRequest ramlRequest, final ResponseHandler<? extends T> responseHandler, final Exchange exchange) {
+        return new ResponseHandler<T>() {
+            @Override
+            public T handleResponse(HttpResponse response) throws IOException {
+                final CheckingHttpEntity entity = checking(ramlRequest, response, exchange);
+                final T result = responseHandler.handleResponse(response);
+                if (entity != null) {
+                    entity.finish();
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * A response that is closed without being read is checked before it is closed,
+     * even if no other request follows and getLastReport() is not called.
+     */
+    private HttpResponse closing(HttpResponse response, final Exchange exchange) {
+        if (!(response instanceof CloseableHttpResponse) || exchange.unread == null) {
+            return response;
+        }
+        return new CheckingHttpResponse((CloseableHttpResponse) response, new CheckingHttpResponse.Check() {
+            @Override
+            public void execute() {
+                exchange.finishUnread();
+            }
+        });
+    }
+
+    /**
+     * @return the entity that checks the response when it has been read, or null if the response has already been checked
+     */
+    private CheckingHttpEntity checking(final HttpComponentsRamlRequest ramlRequest, final HttpResponse response, final Exchange exchange) {
+        final BodyCapture capture = limits.newCapture(ramlRequest.getMethod(), ramlRequest.getPath(),
+                HttpComponentsUtils.contentTypeOf(response), response.getEntity() == null ? -1 : response.getEntity().getContentLength());
+        final CheckingHttpEntity.Check check = new CheckingHttpEntity.Check() {
+            @Override
+            public void execute(BodyCapture content) {
+                exchange.storeReport(checker.check(ramlRequest, new HttpComponentsRamlResponse(response, content)));
+            }
+        };
+        if (response.getEntity() == null) {
+            check.execute(capture);
+            return null;
+        }
+        final CheckingHttpEntity entity = new CheckingHttpEntity(response.getEntity(), capture, check);
+        response.setEntity(entity);
+        return entity;
+    }
+
+    /**
+     * One request and its response. The context is marked with the exchange, so that only one report is stored per exchange
+     * and none after a newer exchange has been started with the same context or on the same thread.
+     */
+    private class Exchange {
+        private final HttpContext context;
+        private CheckingHttpEntity unread;
+
+        Exchange(HttpContext context) {
+            this.context = context;
+            context.setAttribute(RAML_EXCHANGE, this);
+        }
+
+        void storeReport(RamlReport report) {
+            if (context.getAttribute(RAML_EXCHANGE) == this) {
+                end();
+                reportStore.storeReport(report);
+            }
+        }
+
+        void finishUnread() {
+            if (unread != null) {
+                unread.finishUnread();
+                unread = null;
+            }
+        }
+
+        void end() {
+            if (context.getAttribute(RAML_EXCHANGE) == this) {
+                context.removeAttribute(RAML_EXCHANGE);
+            }
         }
-        context.setAttribute(RAML_TESTED, true);
-        return false;
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.util.IoUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the content of loaded resources in memory.
+ * If the total size exceeds the given limit, the least recently used resources are removed.
+ */
+public class CachingRamlLoader implements RamlLoader {
+    private final RamlLoader delegate;
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(16, .75f, true);
+    private long bytes;
+
+    public CachingRamlLoader(RamlLoader delegate, long maxBytes) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public InputStream fetchResource(String name) throws ResourceNotFoundException {
+        byte[] content;
+        synchronized (cache) {
+            content = cache.get(name);
+        }
+        if (content == null) {
+            try {
+                content = IoUtils.readIntoByteArray(delegate.fetchResource(name));
+            } catch (IOException e) {
+                throw new ResourceNotFoundException(name, e);
+            }
+            put(name, content);
+        }
+        return new ByteArrayInputStream(content);
+    }
+
+    public boolean isCached(String name) {
+        synchronized (cache) {
+            return cache.containsKey(name);
+        }
+    }
+
+    private void put(String name, byte[] content) {
+        if (content.length > maxBytes) {
+            return;
+        }
+        synchronized (cache) {
+            final byte[] old = cache.put(name, content);
+            bytes += content.length - (old == null ? 0 : old.length);
+            final Iterator<Map.Entry<String, byte[]>> iter = cache.entrySet().iterator();
+            while (bytes > maxBytes && iter.hasNext()) {
+                bytes -= iter.next().getValue().length;
+                iter.remove();
+            }
+        }
+    }
+}
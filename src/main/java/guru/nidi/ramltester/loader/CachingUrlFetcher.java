@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.util.IoUtils;
+import org.apache.http.*;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * Stores the resources fetched by another UrlFetcher in a local directory.
+ * Cached resources are revalidated using ETag and Last-Modified.
+ * If the server cannot be reached or answers with a server error, the cached resource is used
+ * as long as it is not older than the stale period.
+ */
+public class CachingUrlFetcher implements UrlFetcher {
+    private static final String CONTENT = ".content", META = ".meta";
+    private static final String URL = "url", ETAG = "etag", LAST_MODIFIED = "lastModified", FETCHED = "fetched";
+
+    private final UrlFetcher delegate;
+    private final File directory;
+    private final long freshPeriod;
+    private final long stalePeriod;
+    private final boolean offline;
+
+    private CachingUrlFetcher(UrlFetcher delegate, File directory, long freshPeriod, long stalePeriod, boolean offline) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.freshPeriod = freshPeriod;
+        this.stalePeriod = stalePeriod;
+        this.offline = offline;
+    }
+
+    public CachingUrlFetcher(UrlFetcher delegate, File directory) {
+        this(delegate, directory, 0, Long.MAX_VALUE, false);
+    }
+
+    public CachingUrlFetcher(File directory) {
+        this(new SimpleUrlFetcher(), directory);
+    }
+
+    /**
+     * Cached resources younger than the given period are used without contacting the server.
+     */
+    public CachingUrlFetcher freshFor(long millis) {
+        return new CachingUrlFetcher(delegate, directory, millis, stalePeriod, offline);
+    }
+
+    /**
+     * Cached resources younger than the given period are used if the server cannot deliver them.
+     */
+    public CachingUrlFetcher acceptingStaleFor(long millis) {
+        return new CachingUrlFetcher(delegate, directory, freshPeriod, millis, offline);
+    }
+
+    /**
+     * Only cached resources are used, the server is never contacted.
+     */
+    public CachingUrlFetcher offline() {
+        return new CachingUrlFetcher(delegate, directory, freshPeriod, stalePeriod, true);
+    }
+
+    @Override
+    public InputStream fetchFromUrl(CloseableHttpClient client, String base, String name) throws IOException {
+        final String key = base + "/" + name;
+        final String file = fileName(key);
+        final Properties meta = readMeta(file);
+        if (offline) {
+            if (meta == null) {
+                throw new IOException("Offline and '" + key + "' is not cached");
+            }
+            return cachedContent(file);
+        }
+        if (meta != null && age(meta) < freshPeriod) {
+            return cachedContent(file);
+        }
+        final RevalidatingHttpClient revalidating = new RevalidatingHttpClient(client, file, meta);
+        try {
+            final byte[] content = IoUtils.readIntoByteArray(delegate.fetchFromUrl(revalidating, base, name));
+            if (!revalidating.notModified) {
+                writeContent(file, content);
+            }
+            writeMeta(file, key, revalidating);
+            return new ByteArrayInputStream(content);
+        } catch (IOException | RamlLoader.ResourceNotFoundException e) {
+            if (meta != null && (revalidating.status < 400 || revalidating.status >= 500) && age(meta) < stalePeriod) {
+                return cachedContent(file);
+            }
+            throw e;
+        }
+    }
+
+    private long age(Properties meta) {
+        return System.currentTimeMillis() - Long.parseLong(meta.getProperty(FETCHED));
+    }
+
+    private InputStream cachedContent(String file) throws IOException {
+        return new ByteArrayInputStream(Files.readAllBytes(new File(directory, file + CONTENT).toPath()));
+    }
+
+    private Properties readMeta(String file) throws IOException {
+        final File metaFile = new File(directory, file + META);
+        if (!metaFile.exists() || !new File(directory, file + CONTENT).exists()) {
+            return null;
+        }
+        final Properties meta = new Properties();
+        try (final InputStream in = new FileInputStream(metaFile)) {
+            meta.load(in);
+        }
+        return meta;
+    }
+
+    private void writeMeta(String file, String key, RevalidatingHttpClient revalidating) throws IOException {
+        final Properties meta = new Properties();
+        meta.setProperty(URL, key);
+        meta.setProperty(FETCHED, Long.toString(System.currentTimeMillis()));
+        if (revalidating.etag != null) {
+            meta.setProperty(ETAG, revalidating.etag);
+        }
+        if (revalidating.lastModified != null) {
+            meta.setProperty(LAST_MODIFIED, revalidating.lastModified);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        meta.store(out, null);
+        writeAtomically(file + META, out.toByteArray());
+    }
+
+    private void writeContent(String file, byte[] content) throws IOException {
+        writeAtomically(file + CONTENT, content);
+    }
+
+    private void writeAtomically(String name, byte[] data) throws IOException {
+        directory.mkdirs();
+        final File temp = File.createTempFile(name, ".tmp", directory);
+        try {
+            Files.write(temp.toPath(), data);
+            Files.move(temp.toPath(), new File(directory, name).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("utf-8"));
+            final StringBuilder s = new StringBuilder();
+            for (byte b : digest) {
+                s.append(String.format("%02x", b));
+            }
+            return s.toString();
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Adds the validators of the cached resource to GET requests
+     * and answers with the cached content if the server reports it as not modified.
+     */
+    private class RevalidatingHttpClient extends CloseableHttpClient {
+        private final CloseableHttpClient client;
+        private final String file;
+        private final Properties meta;
+        private String etag, lastModified;
+        private boolean notModified;
+        private int status;
+
+        public RevalidatingHttpClient(CloseableHttpClient client, String file, Properties meta) {
+            this.client = client;
+            this.file = file;
+            this.meta = meta;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) throws IOException, ClientProtocolException {
+            final boolean get = "GET".equalsIgnoreCase(request.getRequestLine().getMethod());
+            if (get && meta != null) {
+                if (meta.getProperty(ETAG) != null) {
+                    request.setHeader(HttpHeaders.IF_NONE_MATCH, meta.getProperty(ETAG));
+                }
+                if (meta.getProperty(LAST_MODIFIED) != null) {
+                    request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, meta.getProperty(LAST_MODIFIED));
+                }
+            }
+            final CloseableHttpResponse response = client.execute(target, request, context);
+            if (!get) {
+                return response;
+            }
+            status = response.getStatusLine().getStatusCode();
+            if (status == HttpStatus.SC_NOT_MODIFIED && meta != null) {
+                EntityUtils.consume(response.getEntity());
+                response.close();
+                notModified = true;
+                etag = meta.getProperty(ETAG);
+                lastModified = meta.getProperty(LAST_MODIFIED);
+                return new CachedResponse(response.getProtocolVersion(), IoUtils.readIntoByteArray(cachedContent(file)));
+            }
+            if (status == HttpStatus.SC_OK) {
+                etag = headerValue(response, HttpHeaders.ETAG);
+                lastModified = headerValue(response, HttpHeaders.LAST_MODIFIED);
+            }
+            return response;
+        }
+
+        private String headerValue(HttpResponse response, String name) {
+            final Header header = response.getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        }
+
+        @Override
+        public void close() throws IOException {
+            client.close();
+        }
+
+        @Override
+        @Deprecated
+        public HttpParams getParams() {
+            return client.getParams();
+        }
+
+        @Override
+        @Deprecated
+        public ClientConnectionManager getConnectionManager() {
+            return client.getConnectionManager();
+        }
+    }
+
+    private static class CachedResponse extends BasicHttpResponse implements CloseableHttpResponse {
+        public CachedResponse(ProtocolVersion version, byte[] content) {
+            super(version, HttpStatus.SC_OK, "OK");
+            setEntity(new ByteArrayEntity(content));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -20,7 +20,7 @@ import java.io.InputStream;
 /**
  *
  */
-public class ClassPathRamlLoader implements RamlLoader {
+public class ClassPathRamlLoader implements ProbingRamlLoader {
     private final String base;
 
     public ClassPathRamlLoader(String base) {
@@ -29,13 +29,22 @@ public class ClassPathRamlLoader implements RamlLoader {
 
     @Override
     public InputStream fetchResource(String name) {
-        final InputStream resource = Thread.currentThread().getContextClassLoader().getResourceAsStream(base + "/" + name);
+        final InputStream resource = probeResource(name);
         if (resource == null) {
             throw new ResourceNotFoundException(name);
         }
         return resource;
     }
 
+    @Override
+    public InputStream probeResource(String name) {
+        return Thread.currentThread().getContextClassLoader().getResourceAsStream(base + "/" + name);
+    }
+
+    public String getBase() {
+        return base;
+    }
+
     public static class Factory implements RamlLoaderFactory {
         @Override
         public String supportedProtocol() {
@@ -16,12 +16,19 @@
 package guru.nidi.ramltester.loader;
 
 import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
  */
-public class CompositeRamlLoader implements RamlLoader {
+public class CompositeRamlLoader implements ProbingRamlLoader {
+    private static final long MISSING_TTL = TimeUnit.SECONDS.toNanos(5);
+
     private final RamlLoader[] loaders;
+    private final ConcurrentMap<String, Integer> index = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> missing = new ConcurrentHashMap<>();
 
     public CompositeRamlLoader(RamlLoader... loaders) {
         this.loaders = loaders;
@@ -29,16 +36,72 @@ public class CompositeRamlLoader implements RamlLoader {
 
     @Override
     public InputStream fetchResource(String name) throws ResourceNotFoundException {
-        for (RamlLoader loader : loaders) {
+        final InputStream resource = probeResource(name);
+        if (resource == null) {
+            throw new ResourceNotFoundException(name);
+        }
+        return resource;
+    }
+
+    @Override
+    public InputStream probeResource(String name) {
+        final Long missingSince = missing.get(name);
+        if (missingSince != null) {
+            if (System.nanoTime() - missingSince < MISSING_TTL) {
+                return null;
+            }
+            missing.remove(name);
+        }
+        ResourceUnavailableException unavailable = null;
+        final Integer indexed = index.get(name);
+        if (indexed != null) {
             try {
-                final InputStream resource = loader.fetchResource(name);
+                final InputStream resource = probe(loaders[indexed], name);
                 if (resource != null) {
                     return resource;
                 }
-            } catch (ResourceNotFoundException e) {
-                //ignore
+                index.remove(name);
+            } catch (ResourceUnavailableException e) {
+                unavailable = e;
+            }
+        }
+        for (int i = 0; i < loaders.length; i++) {
+            if (indexed == null || i != indexed) {
+                try {
+                    final InputStream resource = probe(loaders[i], name);
+                    if (resource != null) {
+                        index.put(name, i);
+                        return resource;
+                    }
+                } catch (ResourceUnavailableException e) {
+                    unavailable = e;
+                }
             }
         }
-        throw new ResourceNotFoundException(name);
+        if (unavailable != null) {
+            throw unavailable;
+        }
+        missing.put(name, System.nanoTime());
+        return null;
+    }
+
+    private static InputStream probe(RamlLoader loader, String name) {
+        if (loader == null) {
+            return null;
+        }
+        if (loader instanceof ProbingRamlLoader) {
+            return ((ProbingRamlLoader) loader).probeResource(name);
+        }
+        try {
+            return loader.fetchResource(name);
+        } catch (ResourceUnavailableException e) {
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    public RamlLoader[] getLoaders() {
+        return loaders;
     }
 }
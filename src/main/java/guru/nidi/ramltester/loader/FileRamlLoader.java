@@ -23,7 +23,7 @@ import java.io.InputStream;
 /**
  *
  */
-public class FileRamlLoader implements RamlLoader {
+public class FileRamlLoader implements ProbingRamlLoader {
     private final File base;
 
     public FileRamlLoader(File base) {
@@ -39,6 +39,23 @@ public class FileRamlLoader implements RamlLoader {
         }
     }
 
+    @Override
+    public InputStream probeResource(String name) {
+        final File file = new File(base, name);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    public File getBase() {
+        return base;
+    }
+
     public static class Factory implements RamlLoaderFactory {
         @Override
         public String supportedProtocol() {
@@ -15,17 +15,20 @@
  */
 package guru.nidi.ramltester.loader;
 
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,6 +42,8 @@ public class FormLoginUrlFetcher extends SimpleUrlFetcher {
     private final String password;
     private final String loginField;
     private final String passwordField;
+    private final Object loginLock = new Object();
+    private int session;
 
     public FormLoginUrlFetcher(String loadPath, String loginPath, String login, String password, String loginField, String passwordField) {
         this.loadPath = loadPath;
@@ -50,29 +55,71 @@ public class FormLoginUrlFetcher extends SimpleUrlFetcher {
     }
 
     @Override
-    public InputStream fetchFromUrl(CloseableHttpClient client, String base, String name) {
+    public InputStream fetchFromUrl(CloseableHttpClient client, String base, String name) throws IOException {
+        final int usedSession = login(client, base, 0);
         try {
+            return super.fetchFromUrl(client, base + "/" + loadPath, name);
+        } catch (LoginRequiredException e) {
+            login(client, base, usedSession);
+            return super.fetchFromUrl(client, base + "/" + loadPath, name);
+        }
+    }
+
+    /**
+     * Log in if there is no session yet or if the given session expired.
+     * Concurrent callers wait for a login in progress instead of logging in themselves.
+     *
+     * @return the number of the current session
+     */
+    private int login(CloseableHttpClient client, String base, int expiredSession) throws IOException {
+        synchronized (loginLock) {
+            if (session != 0 && session != expiredSession) {
+                return session;
+            }
             final HttpPost login = new HttpPost(base + "/" + loginUrl);
             List<NameValuePair> params = new ArrayList<>();
             params.add(new BasicNameValuePair(loginField, this.login));
             params.add(new BasicNameValuePair(passwordField, password));
             postProcessLoginParameters(params);
             login.setEntity(new UrlEncodedFormEntity(params));
-            final CloseableHttpResponse getResult = client.execute(postProcessLogin(login));
-            if (getResult.getStatusLine().getStatusCode() != HttpStatus.SC_MOVED_TEMPORARILY) {
-                throw new RamlLoader.ResourceNotFoundException(name, "Could not login: " + getResult.getStatusLine().toString());
+            try (final CloseableHttpResponse getResult = client.execute(postProcessLogin(login), createContext())) {
+                EntityUtils.consume(getResult.getEntity());
+                if (getResult.getStatusLine().getStatusCode() != HttpStatus.SC_MOVED_TEMPORARILY) {
+                    throw new IOException("Could not login: " + getResult.getStatusLine().toString());
+                }
             }
-            EntityUtils.consume(getResult.getEntity());
-            return super.fetchFromUrl(client, base + "/" + loadPath, name);
-        } catch (IOException e) {
-            throw new RamlLoader.ResourceNotFoundException(name, e);
+            return ++session;
         }
     }
 
+    @Override
+    protected void checkResponse(HttpResponse response, HttpClientContext context) throws IOException {
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_UNAUTHORIZED || redirectedToLogin(context)) {
+            throw new LoginRequiredException(response.getStatusLine().toString());
+        }
+        super.checkResponse(response, context);
+    }
+
+    private boolean redirectedToLogin(HttpClientContext context) {
+        final List<URI> redirects = context.getRedirectLocations();
+        if (redirects == null || redirects.isEmpty()) {
+            return false;
+        }
+        final String path = redirects.get(redirects.size() - 1).getPath();
+        final int query = loginUrl.indexOf('?');
+        return path != null && path.endsWith("/" + (query < 0 ? loginUrl : loginUrl.substring(0, query)));
+    }
+
     protected void postProcessLoginParameters(List<NameValuePair> parameters) {
     }
 
     protected HttpPost postProcessLogin(HttpPost login) {
         return login;
     }
+
+    private static class LoginRequiredException extends IOException {
+        public LoginRequiredException(String message) {
+            super("Login required: " + message);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+/**
+ * Gets notified when a RAML definition is loaded.
+ * Implementations registered in META-INF/services/guru.nidi.ramltester.loader.LoadListener are called for every load.
+ */
+public interface LoadListener {
+    void loadStarted(String name, RamlLoader loader);
+
+    /**
+     * @param bytes    the number of bytes read from the loader, including all includes
+     * @param duration the duration of the load in nanoseconds
+     */
+    void loadFinished(String name, RamlLoader loader, long bytes, long duration);
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.util.IoUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scans every loaded resource for !include and $ref targets and fetches them in the background,
+ * so that they are already available when the raml parser asks for them.
+ * Every resource is fetched only once, so one instance can be shared by multiple loads.
+ * Failed fetches are not cached. When loading is finished, {@link #close()} releases the cached resources.
+ */
+public class PrefetchingRamlLoader implements RamlLoader, Closeable {
+    private static final Charset UTF_8 = Charset.forName("utf-8");
+    private static final Pattern REFERENCE = Pattern.compile("!include\\s+([^\\s,\\]}]+)|\"\\$ref\"\\s*:\\s*\"([^\"#]+)");
+
+    private final RamlLoader delegate;
+    private final Executor executor;
+    private final ConcurrentMap<String, FutureTask<byte[]>> resources = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param executor executes the prefetching, if null, resources are only cached and not prefetched.
+     */
+    public PrefetchingRamlLoader(RamlLoader delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public InputStream fetchResource(String name) throws ResourceNotFoundException {
+        if (closed) {
+            return delegate.fetchResource(name);
+        }
+        final FutureTask<byte[]> task = task(name);
+        task.run();
+        try {
+            return new ByteArrayInputStream(task.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceNotFoundException(name, e);
+        } catch (ExecutionException e) {
+            resources.remove(name, task);
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ResourceNotFoundException(name, cause);
+        }
+    }
+
+    /**
+     * Release all cached resources. Later fetches go directly to the delegate.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        resources.clear();
+    }
+
+    private FutureTask<byte[]> task(final String name) {
+        final FutureTask<byte[]> task = new FutureTask<>(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                final byte[] data = IoUtils.readIntoByteArray(delegate.fetchResource(name));
+                if (executor != null && !closed) {
+                    prefetchReferences(name, data);
+                }
+                return data;
+            }
+        });
+        if (closed) {
+            return task;
+        }
+        final FutureTask<byte[]> existing = resources.putIfAbsent(name, task);
+        return existing == null ? task : existing;
+    }
+
+    private void prefetchReferences(String name, byte[] data) {
+        final Matcher matcher = REFERENCE.matcher(new String(data, UTF_8));
+        while (matcher.find()) {
+            final String reference = resolve(name, matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+            if (!resources.containsKey(reference)) {
+                try {
+                    executor.execute(task(reference));
+                } catch (RejectedExecutionException e) {
+                    //fetched on demand
+                }
+            }
+        }
+    }
+
+    private String resolve(String base, String reference) {
+        if (reference.contains("://") || reference.startsWith("/")) {
+            return reference;
+        }
+        final int pos = base.lastIndexOf('/');
+        return pos < 0 || base.contains("://") ? reference : base.substring(0, pos + 1) + reference;
+    }
+}
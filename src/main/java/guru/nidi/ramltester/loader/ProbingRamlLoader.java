@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import java.io.InputStream;
+
+/**
+ * A RamlLoader that can report a missing resource without throwing an exception.
+ */
+public interface ProbingRamlLoader extends RamlLoader {
+    /**
+     * @return the resource or null if it does not exist.
+     * @throws ResourceUnavailableException if it could not be determined if the resource exists.
+     */
+    InputStream probeResource(String name);
+}
@@ -48,5 +48,14 @@ public interface RamlLoader {
         }
     }
 
+    /**
+     * The resource could not be fetched because of an I/O problem. It may be available on a later try.
+     */
+    class ResourceUnavailableException extends ResourceNotFoundException {
+        public ResourceUnavailableException(String resourceName, Throwable cause) {
+            super(resourceName, cause);
+        }
+    }
+
     InputStream fetchResource(String name) throws ResourceNotFoundException;
 }
@@ -19,18 +19,27 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *
  */
-public class RepositoryRamlLoader implements RamlLoader {
+public class RepositoryRamlLoader implements RamlLoader, Closeable {
+    private static final Charset UTF_8 = Charset.forName("utf-8");
+
     private final RamlLoader loader;
     private final String responseName;
     private final Class<? extends RepositoryResponse> responseClass;
+    private final ConcurrentMap<String, byte[]> contents = new ConcurrentHashMap<>();
     private RepositoryResponse response;
+    private Map<String, RepositoryEntry> entries;
 
     public RepositoryRamlLoader(RamlLoader loader, String responseName, Class<? extends RepositoryResponse> responseClass) {
         this.loader = loader;
@@ -40,40 +49,80 @@ public class RepositoryRamlLoader implements RamlLoader {
 
     @Override
     public InputStream fetchResource(String resourceName) {
-        if (response == null) {
-            response = load();
-        }
-        final RepositoryEntry entry = findEntry(resourceName);
+        final byte[] content = contents.get(resourceName);
+        return new ByteArrayInputStream(content == null ? readContent(resourceName) : content);
+    }
+
+    /**
+     * Holds the same lock as close(), so the repository is not released while an entry is read.
+     */
+    private synchronized byte[] readContent(String resourceName) {
+        final RepositoryEntry entry = entries().get(resourceName);
         if (entry == null) {
             throw new ResourceNotFoundException(resourceName);
         }
-        return new ByteArrayInputStream(entry.getContent().getBytes(Charset.forName("utf-8")));
+        final byte[] content = entry.getContent().getBytes(UTF_8);
+        contents.put(resourceName, content);
+        return content;
+    }
+
+    public RamlLoader getLoader() {
+        return loader;
+    }
+
+    private synchronized Map<String, RepositoryEntry> entries() {
+        if (entries == null) {
+            response = load();
+            entries = index(response);
+        }
+        return entries;
+    }
+
+    /**
+     * Release the loaded repository. It is loaded again when another resource is fetched.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (response instanceof Closeable) {
+            ((Closeable) response).close();
+        }
+        response = null;
+        entries = null;
+        contents.clear();
+    }
+
+    private Map<String, RepositoryEntry> index(RepositoryResponse response) {
+        final Map<String, RepositoryEntry> index = new HashMap<>();
+        for (RepositoryEntry file : response.getFiles()) {
+            addIfAbsent(index, file.getName(), file);
+            addIfAbsent(index, file.getPath(), file);
+        }
+        return index;
+    }
+
+    private void addIfAbsent(Map<String, RepositoryEntry> index, String key, RepositoryEntry file) {
+        if (key != null && !index.containsKey(key)) {
+            index.put(key, file);
+        }
     }
 
     protected RepositoryResponse load() {
-        final ObjectMapper mapper = createMapper();
-        final InputStream files = loader.fetchResource(responseName);
         //TODO when empty, files is an empty array, not object!?
-        try {
-            return mapper.readValue(files, responseClass);
+        try (final InputStream files = loader.fetchResource(responseName)) {
+            return parse(files);
         } catch (IOException e) {
             throw new ResourceNotFoundException(responseName, e);
         }
     }
 
+    protected RepositoryResponse parse(InputStream files) throws IOException {
+        return createMapper().readValue(files, responseClass);
+    }
+
     private ObjectMapper createMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         return mapper;
     }
 
-    private RepositoryEntry findEntry(String name) {
-        for (RepositoryEntry file : response.getFiles()) {
-            if (name.equals(file.getName()) || name.equals(file.getPath())) {
-                return file;
-            }
-        }
-        return null;
-    }
-
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.cookie.Cookie;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The http client used by all UrlRamlLoaders that are not given an explicit client.
+ * Connections are pooled and kept alive.
+ * Cookies are only stored if a request brings its own cookie store, so no session is shared between loaders.
+ */
+public final class SharedHttpClient {
+    private static int maxConnections = 20;
+    private static int connectTimeout = 10000;
+    private static int socketTimeout = 30000;
+    private static CloseableHttpClient client;
+
+    private SharedHttpClient() {
+    }
+
+    public static synchronized CloseableHttpClient get() {
+        if (client == null) {
+            final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxConnections);
+            connectionManager.setDefaultMaxPerRoute(maxConnections);
+            client = HttpClientBuilder.create()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout(connectTimeout)
+                            .setConnectionRequestTimeout(connectTimeout)
+                            .setSocketTimeout(socketTimeout)
+                            .build())
+                    .setDefaultCookieStore(new NoCookieStore())
+                    .build();
+        }
+        return client;
+    }
+
+    /**
+     * Change the settings of the shared client. The current client is closed and a new one is created on the next use.
+     *
+     * @param maxConnections      the maximum number of open connections
+     * @param connectTimeoutMillis the timeout to connect or to get a pooled connection
+     * @param socketTimeoutMillis  the timeout waiting for data
+     */
+    public static synchronized void configure(int maxConnections, int connectTimeoutMillis, int socketTimeoutMillis) throws IOException {
+        SharedHttpClient.maxConnections = maxConnections;
+        SharedHttpClient.connectTimeout = connectTimeoutMillis;
+        SharedHttpClient.socketTimeout = socketTimeoutMillis;
+        close();
+    }
+
+    public static synchronized void close() throws IOException {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
+    }
+
+    private static class NoCookieStore implements CookieStore {
+        @Override
+        public void addCookie(Cookie cookie) {
+        }
+
+        @Override
+        public List<Cookie> getCookies() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean clearExpired(Date date) {
+            return false;
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+}
@@ -15,11 +15,18 @@
  */
 package guru.nidi.ramltester.loader;
 
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.CookieStore;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -27,14 +34,45 @@ import java.io.InputStream;
  *
  */
 public class SimpleUrlFetcher implements UrlFetcher {
+    private final CookieStore cookieStore = new BasicCookieStore();
+
     @Override
     public InputStream fetchFromUrl(CloseableHttpClient client, String base, String name) throws IOException {
         final HttpGet get = postProcessGet(new HttpGet(base + "/" + encodeUrl(name)));
-        final CloseableHttpResponse getResult = client.execute(get);
-        if (getResult.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-            throw new IOException("Http response status not ok: " + getResult.getStatusLine().toString());
+        final HttpClientContext context = createContext();
+        final CloseableHttpResponse getResult = client.execute(get, context);
+        try {
+            checkResponse(getResult, context);
+            if (getResult.getEntity() == null) {
+                getResult.close();
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            //the connection is released when the stream is read to the end or closed
+            return getResult.getEntity().getContent();
+        } catch (IOException | RuntimeException e) {
+            EntityUtils.consumeQuietly(getResult.getEntity());
+            getResult.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The cookies of all fetches of this instance are kept together, so a session is kept between fetches.
+     */
+    protected HttpClientContext createContext() {
+        final HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(cookieStore);
+        return context;
+    }
+
+    protected void checkResponse(HttpResponse response, HttpClientContext context) throws IOException {
+        final int status = response.getStatusLine().getStatusCode();
+        if (status == HttpStatus.SC_NOT_FOUND || status == HttpStatus.SC_GONE) {
+            throw new FileNotFoundException("Http response status not found: " + response.getStatusLine().toString());
+        }
+        if (status != HttpStatus.SC_OK) {
+            throw new IOException("Http response status not ok: " + response.getStatusLine().toString());
         }
-        return getResult.getEntity().getContent();
     }
 
     protected String encodeUrl(String name) {
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a repository response with a streaming parser.
+ * Every object with a name or path and a content or contents field is an entry.
+ * The contents are written to a temporary file and only read again when an entry's content is requested.
+ * The file is deleted when the response is closed.
+ */
+public class StreamingRepositoryResponse implements RepositoryResponse, Closeable {
+    private static final Charset UTF_8 = Charset.forName("utf-8");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final File spill;
+    private final boolean urlEncoded;
+    private final List<Entry> files = new ArrayList<>();
+
+    private StreamingRepositoryResponse(File spill, boolean urlEncoded) {
+        this.spill = spill;
+        this.urlEncoded = urlEncoded;
+    }
+
+    /**
+     * @param urlEncoded if the contents are URL encoded
+     */
+    public static StreamingRepositoryResponse read(InputStream in, boolean urlEncoded) throws IOException {
+        final File spill = File.createTempFile("raml-repository", ".tmp");
+        spill.deleteOnExit();
+        final StreamingRepositoryResponse response = new StreamingRepositoryResponse(spill, urlEncoded);
+        try (final FileChannel channel = new FileOutputStream(spill).getChannel();
+             final JsonParser parser = JSON_FACTORY.createParser(in)) {
+            final JsonToken token = parser.nextToken();
+            if (token != null) {
+                response.readValue(parser, channel, token);
+            }
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+        return response;
+    }
+
+    @Override
+    public void close() {
+        spill.delete();
+    }
+
+    @Override
+    public Iterable<? extends RepositoryEntry> getFiles() {
+        return files;
+    }
+
+    private void readValue(JsonParser parser, FileChannel channel, JsonToken token) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            readObject(parser, channel);
+        } else if (token == JsonToken.START_ARRAY) {
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                readValue(parser, channel, element);
+            }
+        }
+    }
+
+    private void readObject(JsonParser parser, FileChannel channel) throws IOException {
+        String name = null, path = null;
+        long offset = -1;
+        int length = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_STRING) {
+                if ("name".equals(field)) {
+                    name = parser.getText();
+                } else if ("path".equals(field)) {
+                    path = parser.getText();
+                } else if ("content".equals(field) || "contents".equals(field)) {
+                    offset = channel.position();
+                    length = spill(parser, channel);
+                }
+            } else {
+                readValue(parser, channel, value);
+            }
+        }
+        if (offset >= 0 && (name != null || path != null)) {
+            files.add(new Entry(name, path, offset, length));
+        }
+    }
+
+    private int spill(JsonParser parser, FileChannel channel) throws IOException {
+        final ByteBuffer bytes = UTF_8.encode(CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()));
+        final int length = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        return length;
+    }
+
+    private String readContent(long offset, int length) {
+        final byte[] bytes = new byte[length];
+        try (final RandomAccessFile in = new RandomAccessFile(spill, "r")) {
+            in.seek(offset);
+            in.readFully(bytes);
+            final String content = new String(bytes, UTF_8);
+            return urlEncoded ? URLDecoder.decode(content, "utf-8") : content;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read content from " + spill, e);
+        }
+    }
+
+    private class Entry implements RepositoryEntry {
+        private final String name;
+        private final String path;
+        private final long offset;
+        private final int length;
+
+        public Entry(String name, String path, long offset, int length) {
+            this.name = name;
+            this.path = path;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getContent() {
+            return readContent(offset, length);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "name='" + name + '\'' +
+                    ", path='" + path + '\'' +
+                    '}';
+        }
+    }
+}
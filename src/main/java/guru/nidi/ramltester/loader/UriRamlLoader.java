@@ -15,11 +15,15 @@
  */
 package guru.nidi.ramltester.loader;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,7 +31,7 @@ import java.util.regex.Pattern;
  * Handles resources with absolute URIs. Handling of relative URIs are delegated to another RamlLoader.
  * Loaders are registered in META-INF/services/guru.nidi.ramltester.loader.RamlLoaderFactory
  */
-public class UriRamlLoader implements RamlLoader {
+public class UriRamlLoader implements RamlLoader, Closeable {
     private static final Pattern ABSOLUTE_URI_PATTERN = Pattern.compile("([^:]+)://(.+)/([^/]+)");
 
     private static Map<String, RamlLoaderFactory> factories = new HashMap<>();
@@ -41,6 +45,7 @@ public class UriRamlLoader implements RamlLoader {
     }
 
     private final RamlLoader relativeLoader;
+    private final ConcurrentMap<String, RamlLoader> absoluteLoaders = new ConcurrentHashMap<>();
 
     public UriRamlLoader(RamlLoader relativeLoader) {
         this.relativeLoader = relativeLoader;
@@ -75,11 +80,32 @@ public class UriRamlLoader implements RamlLoader {
         return name;
     }
 
+    /**
+     * Close the loaders that have been created for absolute URIs. New ones are created when needed again.
+     */
+    @Override
+    public void close() throws IOException {
+        for (final Iterator<RamlLoader> it = absoluteLoaders.values().iterator(); it.hasNext(); ) {
+            final RamlLoader loader = it.next();
+            it.remove();
+            if (loader instanceof Closeable) {
+                ((Closeable) loader).close();
+            }
+        }
+    }
+
     private RamlLoader absoluteLoader(String protocol, String base) {
+        final String key = protocol + "://" + base;
+        final RamlLoader loader = absoluteLoaders.get(key);
+        if (loader != null) {
+            return loader;
+        }
         final RamlLoaderFactory factory = factories.get(protocol);
         if (factory == null) {
             throw new IllegalArgumentException("Unsupported protocol " + protocol);
         }
-        return factory.getRamlLoader(base);
+        final RamlLoader newLoader = factory.getRamlLoader(base);
+        final RamlLoader existing = absoluteLoaders.putIfAbsent(key, newLoader);
+        return existing == null ? newLoader : existing;
     }
 }
@@ -16,8 +16,8 @@
 package guru.nidi.ramltester.loader;
 
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -29,12 +29,13 @@ public class UrlRamlLoader implements RamlLoader {
     private final CloseableHttpClient client;
     private final UrlFetcher fetcher;
 
+    /**
+     * @param httpClient the client to use, if null, the SharedHttpClient is used.
+     */
     public UrlRamlLoader(String base, UrlFetcher fetcher, CloseableHttpClient httpClient) {
         this.base = base;
         this.fetcher = fetcher;
-        this.client = httpClient == null
-                ? HttpClientBuilder.create().build()
-                : httpClient;
+        this.client = httpClient;
     }
 
     public UrlRamlLoader(String base, UrlFetcher fetcher) {
@@ -48,12 +49,18 @@ public class UrlRamlLoader implements RamlLoader {
     @Override
     public InputStream fetchResource(String name) {
         try {
-            return fetcher.fetchFromUrl(client, base, name);
-        } catch (IOException e) {
+            return fetcher.fetchFromUrl(client == null ? SharedHttpClient.get() : client, base, name);
+        } catch (FileNotFoundException e) {
             throw new ResourceNotFoundException(name, e);
+        } catch (IOException e) {
+            throw new ResourceUnavailableException(name, e);
         }
     }
 
+    public String getBase() {
+        return base;
+    }
+
     public static class HttpFactory implements RamlLoaderFactory {
         @Override
         public String supportedProtocol() {
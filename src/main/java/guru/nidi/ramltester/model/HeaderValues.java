@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.model;
+
+import java.util.*;
+
+/**
+ * A read-only view of the headers of a message, backed directly by the native header structure of an adapter.
+ * Lookup by name is case-insensitive.
+ */
+public abstract class HeaderValues implements ReadOnlyValues {
+    /**
+     * @return the distinct names of all headers.
+     */
+    protected abstract Iterator<String> headerNames();
+
+    /**
+     * @param name the header name, to be matched case-insensitively.
+     * @return all values of the header or null if it does not exist.
+     */
+    protected abstract List<Object> headerValues(String name);
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (final Iterator<String> names = headerNames(); names.hasNext(); names.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public List<Object> get(String name) {
+        return headerValues(name);
+    }
+
+    @Override
+    public Set<String> names() {
+        final Set<String> names = new LinkedHashSet<>();
+        for (final Iterator<String> it = headerNames(); it.hasNext(); ) {
+            names.add(it.next());
+        }
+        return names;
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, List<Object>>> iterator() {
+        final Iterator<String> names = headerNames();
+        return new Iterator<Map.Entry<String, List<Object>>>() {
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, List<Object>> next() {
+                final String name = names.next();
+                return new AbstractMap.SimpleImmutableEntry<>(name, headerValues(name));
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    protected static Iterator<String> iterator(final Enumeration<String> enumeration) {
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return enumeration.hasMoreElements();
+            }
+
+            @Override
+            public String next() {
+                return enumeration.nextElement();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    protected static List<Object> list(Enumeration<?> enumeration) {
+        if (enumeration == null || !enumeration.hasMoreElements()) {
+            return null;
+        }
+        final List<Object> list = new ArrayList<>(1);
+        while (enumeration.hasMoreElements()) {
+            list.add(enumeration.nextElement());
+        }
+        return list;
+    }
+
+    protected static List<Object> list(List<?> list) {
+        return list == null || list.isEmpty() ? null : Collections.<Object>unmodifiableList(list);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ReadOnlyValues && new Values(this).equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return new Values(this).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new Values(this).toString();
+    }
+}
@@ -19,7 +19,7 @@ package guru.nidi.ramltester.model;
  *
  */
 public interface RamlMessage {
-    Values getHeaderValues();
+    ReadOnlyValues getHeaderValues();
 
     String getContentType();
 
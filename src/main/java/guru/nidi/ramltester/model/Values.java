@@ -20,7 +20,7 @@ import java.util.*;
 /**
  *
  */
-public class Values implements Iterable<Map.Entry<String, List<Object>>> {
+public class Values implements ReadOnlyValues {
     private final Map<String, List<Object>> values = new HashMap<>();
 
     public Values() {
@@ -32,10 +32,18 @@ public class Values implements Iterable<Map.Entry<String, List<Object>>> {
         }
     }
 
+    public Values(ReadOnlyValues values) {
+        for (Map.Entry<String, List<Object>> entry : values) {
+            addValues(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
     public int size() {
         return values.size();
     }
 
+    @Override
     public List<Object> get(String name) {
         return values.get(name);
     }
@@ -73,6 +81,7 @@ public class Values implements Iterable<Map.Entry<String, List<Object>>> {
         return values.entrySet().iterator();
     }
 
+    @Override
     public Set<String> names() {
         return values.keySet();
     }
@@ -86,6 +95,9 @@ public class Values implements Iterable<Map.Entry<String, List<Object>>> {
         if (this == o) {
             return true;
         }
+        if (o instanceof ReadOnlyValues && !(o instanceof Values)) {
+            return equals(new Values((ReadOnlyValues) o));
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -47,6 +47,22 @@ class DelegatingServletOutputStream extends ServletOutputStream {
         throwIfNeeded(e1, e2);
     }
 
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        IOException e1 = null, e2 = null;
+        try {
+            delegate1.write(b, off, len);
+        } catch (IOException e) {
+            e1 = e;
+        }
+        try {
+            delegate2.write(b, off, len);
+        } catch (IOException e) {
+            e2 = e;
+        }
+        throwIfNeeded(e1, e2);
+    }
+
     @Override
     public void flush() throws IOException {
         IOException e1 = null, e2 = null;
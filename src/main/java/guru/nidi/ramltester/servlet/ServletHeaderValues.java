@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.servlet;
+
+import guru.nidi.ramltester.model.HeaderValues;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ *
+ */
+public class ServletHeaderValues extends HeaderValues {
+    private final HttpServletRequest request;
+
+    public ServletHeaderValues(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    @Override
+    protected Iterator<String> headerNames() {
+        return iterator(request.getHeaderNames());
+    }
+
+    @Override
+    protected List<Object> headerValues(String name) {
+        return list(request.getHeaders(name));
+    }
+}
@@ -16,28 +16,42 @@
 package guru.nidi.ramltester.servlet;
 
 import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.ReadOnlyValues;
+import guru.nidi.ramltester.model.SizeLimitedMessage;
+import guru.nidi.ramltester.model.StreamingMessage;
 import guru.nidi.ramltester.model.Values;
-import guru.nidi.ramltester.util.FormDecoder;
-import guru.nidi.ramltester.util.IoUtils;
-import guru.nidi.ramltester.util.UriComponents;
+import guru.nidi.ramltester.util.*;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletInputStream;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.Enumeration;
+import java.io.*;
 
 /**
  *
  */
-public class ServletRamlRequest extends HttpServletRequestWrapper implements RamlRequest {
+public class ServletRamlRequest extends HttpServletRequestWrapper implements RamlRequest, SizeLimitedMessage, StreamingMessage {
+    private final CaptureLimits limits;
+    private final ServletResponse response;
+    private BodyCapture capture;
+    private TeeInputStream tee;
+    private boolean complete;
     private byte[] content;
 
-    public ServletRamlRequest(HttpServletRequest delegate) {
+    ServletRamlRequest(HttpServletRequest delegate, CaptureLimits limits, ServletResponse response) {
         super(delegate);
+        this.limits = limits;
+        this.response = response;
+    }
+
+    public ServletRamlRequest(HttpServletRequest delegate, CaptureLimits limits) {
+        this(delegate, limits, null);
+    }
+
+    public ServletRamlRequest(HttpServletRequest delegate) {
+        this(delegate, CaptureLimits.unlimited());
     }
 
     private HttpServletRequest request() {
@@ -60,47 +74,105 @@ public class ServletRamlRequest extends HttpServletRequestWrapper implements Ram
     }
 
     @Override
-    public Values getHeaderValues() {
-        final Values headers = new Values();
-        final Enumeration<String> names = request().getHeaderNames();
-        while (names.hasMoreElements()) {
-            final String name = names.nextElement();
-            final Enumeration<String> values = request().getHeaders(name);
-            while (values.hasMoreElements()) {
-                headers.addValue(name, values.nextElement());
-            }
-        }
-        return headers;
+    public ReadOnlyValues getHeaderValues() {
+        return new ServletHeaderValues(request());
     }
 
     @Override
-    public ServletInputStream getInputStream() throws IOException {
-        readContentIfNeeded();
-        return new DelegatingServletInputStream(new ByteArrayInputStream(content));
+    public AsyncContext startAsync() {
+        //keep the wrappers, so that asynchronously written content is captured too
+        return response == null ? super.startAsync() : startAsync(this, response);
     }
 
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (complete && !capture.isTooLarge()) {
+            return new DelegatingServletInputStream(capture.getInputStream());
+        }
+        //don't close the original stream, the rest of it is still needed for getContent()
+        return new DelegatingServletInputStream(new FilterInputStream(tee()) {
+            @Override
+            public void close() {
+            }
+        });
+    }
 
     @Override
     public BufferedReader getReader() throws IOException {
-        readContentIfNeeded();
         return new BufferedReader(getCharacterEncoding() != null
-                ? new InputStreamReader(new ByteArrayInputStream(content), getCharacterEncoding())
-                : new InputStreamReader(new ByteArrayInputStream(content)));
+                ? new InputStreamReader(getInputStream(), getCharacterEncoding())
+                : new InputStreamReader(getInputStream()));
     }
 
     @Override
     public byte[] getContent() {
         try {
-            readContentIfNeeded();
-            return IoUtils.readIntoByteArray(getInputStream());
+            if (content == null) {
+                complete();
+                content = capture.toByteArray();
+            }
+            return content;
         } catch (IOException e) {
             throw new RuntimeException("Could not read content", e);
         }
     }
 
-    private void readContentIfNeeded() throws IOException {
-        if (content == null) {
-            content = IoUtils.readIntoByteArray(super.getInputStream());
+    @Override
+    public long getTransferredSize() {
+        try {
+            complete();
+            return capture.isTooLarge() ? 0 : capture.size();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read content", e);
+        }
+    }
+
+    @Override
+    public InputStream getContentStream() throws IOException {
+        complete();
+        return content != null ? new ByteArrayInputStream(content) : capture.getInputStream();
+    }
+
+    @Override
+    public boolean isContentTooLarge() {
+        try {
+            complete();
+            return capture.isTooLarge();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read content", e);
+        }
+    }
+
+    private void complete() throws IOException {
+        if (!complete) {
+            final TeeInputStream in = tee();
+            if (getContentLength() < 0 || capture.size() < getContentLength()) {
+                in.drain();
+            }
+            complete = true;
+        }
+    }
+
+    private TeeInputStream tee() throws IOException {
+        if (tee == null) {
+            capture = limits.newCapture(getMethod(), path(request()), getContentType(), getContentLength());
+            tee = new TeeInputStream(super.getInputStream(), capture);
+        }
+        return tee;
+    }
+
+    static String path(HttpServletRequest request) {
+        final String uri = request.getRequestURI();
+        final String contextPath = request.getContextPath();
+        return contextPath != null && uri.startsWith(contextPath) ? uri.substring(contextPath.length()) : uri;
+    }
+
+    /**
+     * Free the resources used to capture the content.
+     */
+    void release() {
+        if (capture != null) {
+            capture.release();
         }
     }
 }
@@ -16,9 +16,15 @@
 package guru.nidi.ramltester.servlet;
 
 import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.model.SizeLimitedMessage;
+import guru.nidi.ramltester.model.StreamingMessage;
 import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.util.BodyCapture;
+import guru.nidi.ramltester.util.CaptureLimits;
+import guru.nidi.ramltester.util.IoUtils;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.*;
@@ -26,14 +32,18 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.zip.GZIPInputStream;
 
 /**
  *
  */
-public class ServletRamlResponse extends HttpServletResponseWrapper implements RamlResponse {
+public class ServletRamlResponse extends HttpServletResponseWrapper implements RamlResponse, SizeLimitedMessage, StreamingMessage {
     private String characterEncoding = "iso-8859-1";
-    private final ByteArrayOutputStream content = new ByteArrayOutputStream(1024);
+    private final CaptureLimits limits;
+    private final String method;
+    private final String path;
+    private BodyCapture content;
+    private byte[] contentBytes;
+    private long contentSize;
 
     private PrintWriter writer;
     private ServletOutputStream outputStream;
@@ -41,8 +51,15 @@ public class ServletRamlResponse extends HttpServletResponseWrapper implements R
     private int status = HttpServletResponse.SC_OK;
     private final Values headers = new Values();
 
-    public ServletRamlResponse(HttpServletResponse delegate) {
+    public ServletRamlResponse(HttpServletResponse delegate, HttpServletRequest request, CaptureLimits limits) {
         super(delegate);
+        this.limits = limits;
+        this.method = request == null ? null : request.getMethod();
+        this.path = request == null ? null : ServletRamlRequest.path(request);
+    }
+
+    public ServletRamlResponse(HttpServletResponse delegate) {
+        this(delegate, null, CaptureLimits.unlimited());
     }
 
     private HttpServletResponse response() {
@@ -113,7 +130,7 @@ public class ServletRamlResponse extends HttpServletResponseWrapper implements R
     public PrintWriter getWriter() throws IOException {
         if (writer == null) {
             Writer targetWriter = characterEncoding != null ?
-                    new OutputStreamWriter(content, characterEncoding) : new OutputStreamWriter(content);
+                    new OutputStreamWriter(capture(), characterEncoding) : new OutputStreamWriter(capture());
             writer = new PrintWriter(new DelegatingWriter(super.getWriter(), targetWriter));
         }
         return writer;
@@ -122,7 +139,7 @@ public class ServletRamlResponse extends HttpServletResponseWrapper implements R
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
         if (outputStream == null) {
-            outputStream = new DelegatingServletOutputStream(super.getOutputStream(), content);
+            outputStream = new DelegatingServletOutputStream(super.getOutputStream(), capture());
         }
         return outputStream;
     }
@@ -131,22 +148,66 @@ public class ServletRamlResponse extends HttpServletResponseWrapper implements R
     public byte[] getContent() {
         try {
             flushBuffer();
-            final byte[] data = content.toByteArray();
-            return "gzip".equalsIgnoreCase(getHeader("Content-Encoding")) ? gunzip(data) : data;
+            if (content == null || content.isTooLarge()) {
+                return new byte[0];
+            }
+            if (contentBytes == null || contentSize != content.size()) {
+                contentBytes = isEncoded()
+                        ? IoUtils.readIntoByteArray(getContentStream())
+                        : content.toByteArray();
+                contentSize = content.size();
+            }
+            return contentBytes;
         } catch (IOException e) {
             throw new RuntimeException("Problem getting content", e);
         }
     }
 
-    private byte[] gunzip(byte[] gzipped) throws IOException {
-        final GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped));
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
-        final byte[] buf = new byte[1000];
-        int read;
-        while ((read = gzip.read(buf)) > 0) {
-            out.write(buf, 0, read);
+    @Override
+    public long getTransferredSize() {
+        return content == null || content.isTooLarge() ? 0 : content.size();
+    }
+
+    @Override
+    public InputStream getContentStream() throws IOException {
+        flushBuffer();
+        if (content == null || content.isTooLarge()) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (contentBytes != null && contentSize == content.size()) {
+            return new ByteArrayInputStream(contentBytes);
+        }
+        return IoUtils.decoded(content.getInputStream(), getHeader("Content-Encoding"));
+    }
+
+    private boolean isEncoded() {
+        final String encoding = getHeader("Content-Encoding");
+        return encoding != null && !"identity".equalsIgnoreCase(encoding);
+    }
+
+    /**
+     * Free the resources used to capture the content.
+     * The content that has already been read with getContent() stays available.
+     */
+    void release() {
+        if (content != null) {
+            if (contentSize != content.size()) {
+                contentBytes = null;
+            }
+            content.release();
+        }
+    }
+
+    @Override
+    public boolean isContentTooLarge() {
+        return content != null && content.isTooLarge();
+    }
+
+    private BodyCapture capture() {
+        if (content == null) {
+            content = limits.newCapture(method, path, getContentType());
         }
-        return out.toByteArray();
+        return content;
     }
 
     @Override
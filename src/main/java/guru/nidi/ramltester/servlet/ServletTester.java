@@ -15,13 +15,13 @@
  */
 package guru.nidi.ramltester.servlet;
 
+import guru.nidi.ramltester.core.DummyReportAggragator;
 import guru.nidi.ramltester.core.RamlChecker;
 import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.core.ReportAggregator;
+import guru.nidi.ramltester.util.CaptureLimits;
 
-import javax.servlet.FilterChain;
-import javax.servlet.ServletException;
-import javax.servlet.ServletRequest;
-import javax.servlet.ServletResponse;
+import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -31,18 +31,95 @@ import java.io.IOException;
  */
 public class ServletTester {
     private final RamlChecker checker;
+    private final CaptureLimits limits;
+    private final ReportAggregator aggregator;
 
-    public ServletTester(RamlChecker checker) {
+    private ServletTester(RamlChecker checker, CaptureLimits limits, ReportAggregator aggregator) {
         this.checker = checker;
+        this.limits = limits;
+        this.aggregator = aggregator;
+    }
+
+    public ServletTester(RamlChecker checker, CaptureLimits limits) {
+        this(checker, limits, new DummyReportAggragator());
+    }
+
+    public ServletTester(RamlChecker checker) {
+        this(checker, CaptureLimits.unlimited());
     }
-   
+
+    /**
+     * Add the reports of all checks to the given aggregator, including the ones of asynchronous requests.
+     */
+    public ServletTester aggregating(ReportAggregator aggregator) {
+        return new ServletTester(checker, limits, aggregator);
+    }
+
+    /**
+     * Let the chain process the request and check request and response.
+     * If the request is put into asynchronous mode, the check is done when the asynchronous processing completes.
+     * In this case, null is returned and the report is only available to the aggregator
+     * and to {@link guru.nidi.ramltester.core.CheckListener}s.
+     */
     public RamlReport testAgainst(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
         if (!(request instanceof HttpServletRequest)) {
             return null;
         }
-        final ServletRamlRequest httpRequest = new ServletRamlRequest((HttpServletRequest) request);
-        final ServletRamlResponse httpResponse = new ServletRamlResponse((HttpServletResponse) response);
-        chain.doFilter(httpRequest, httpResponse);
-        return checker.check(httpRequest, httpResponse);
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            //the request is checked by the listener registered when async processing was started
+            chain.doFilter(request, response);
+            return null;
+        }
+        final ServletRamlResponse httpResponse = new ServletRamlResponse((HttpServletResponse) response, (HttpServletRequest) request, limits);
+        final ServletRamlRequest httpRequest = new ServletRamlRequest((HttpServletRequest) request, limits, httpResponse);
+        boolean async = false;
+        try {
+            chain.doFilter(httpRequest, httpResponse);
+            if (httpRequest.isAsyncStarted()) {
+                httpRequest.getAsyncContext().addListener(new CheckingAsyncListener(httpRequest, httpResponse));
+                async = true;
+                return null;
+            }
+            return aggregator.addReport(checker.check(httpRequest, httpResponse));
+        } finally {
+            if (!async) {
+                httpRequest.release();
+                httpResponse.release();
+            }
+        }
+    }
+
+    private class CheckingAsyncListener implements AsyncListener {
+        private final ServletRamlRequest request;
+        private final ServletRamlResponse response;
+
+        public CheckingAsyncListener(ServletRamlRequest request, ServletRamlResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            try {
+                aggregator.addReport(checker.check(request, response));
+            } finally {
+                request.release();
+                response.release();
+            }
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            //async processing has been restarted, keep listening on the new context
+            event.getAsyncContext().addListener(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
     }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.spring;
+
+import guru.nidi.ramltester.core.RamlChecker;
+import guru.nidi.ramltester.core.ReportStore;
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.model.ReadOnlyValues;
+import guru.nidi.ramltester.model.SizeLimitedMessage;
+import guru.nidi.ramltester.util.BodyCapture;
+import guru.nidi.ramltester.util.CaptureLimits;
+import guru.nidi.ramltester.util.TeeInputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+
+import static guru.nidi.ramltester.spring.SpringUtils.contentTypeOf;
+import static guru.nidi.ramltester.spring.SpringUtils.headerValuesOf;
+
+/**
+ * Captures the body of a response while it is read.
+ * As soon as it has been read completely or the response is closed, the check is executed by the given executor.
+ * Status and headers are taken when the response arrives, as they might not be available anymore after it has been closed.
+ */
+class CheckingClientHttpResponse implements ClientHttpResponse, RamlResponse, SizeLimitedMessage {
+    private final ClientHttpResponse response;
+    private final RamlRequest request;
+    private final RamlChecker checker;
+    private final ReportStore reportStore;
+    private final Executor executor;
+    private final int status;
+    private final HttpHeaders headers;
+    private final BodyCapture capture;
+    private CapturingInputStream body;
+    private boolean checked;
+
+    CheckingClientHttpResponse(ClientHttpResponse response, SpringHttpRequestRamlRequest request, RamlChecker checker, ReportStore reportStore,
+                               Executor executor, CaptureLimits limits) throws IOException {
+        this.response = response;
+        this.request = request;
+        this.checker = checker;
+        this.reportStore = reportStore;
+        this.executor = executor;
+        status = response.getRawStatusCode();
+        headers = response.getHeaders();
+        capture = limits.newCapture(request.getMethod(), request.getPath(), contentTypeOf(headers), headers.getContentLength());
+    }
+
+    static void checkRequest(final RamlRequest request, final RamlChecker checker, final ReportStore reportStore, Executor executor) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                reportStore.storeReport(checker.check(request));
+            }
+        });
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            final InputStream in = response.getBody();
+            body = new CapturingInputStream(in == null ? new ByteArrayInputStream(new byte[0]) : in);
+        }
+        return body;
+    }
+
+    @Override
+    public void close() {
+        try {
+            getBody().close();
+        } catch (IOException e) {
+            //the body is incomplete, it can not be checked
+        } finally {
+            response.close();
+        }
+    }
+
+    private void done() {
+        if (!checked) {
+            checked = true;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reportStore.storeReport(checker.check(request, CheckingClientHttpResponse.this));
+                    } finally {
+                        capture.release();
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return status;
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return response.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentTypeOf(getHeaders());
+    }
+
+    @Override
+    public byte[] getContent() {
+        try {
+            return capture.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Problem getting content", e);
+        }
+    }
+
+    @Override
+    public boolean isContentTooLarge() {
+        return capture.isTooLarge();
+    }
+
+    @Override
+    public ReadOnlyValues getHeaderValues() {
+        return headerValuesOf(getHeaders());
+    }
+
+    private class CapturingInputStream extends TeeInputStream {
+        public CapturingInputStream(InputStream in) {
+            super(in, capture);
+        }
+
+        @Override
+        protected void finished() {
+            done();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
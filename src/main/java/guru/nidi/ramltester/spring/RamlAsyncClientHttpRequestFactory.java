@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.spring;
+
+import guru.nidi.ramltester.core.RamlChecker;
+import guru.nidi.ramltester.core.ReportStore;
+import guru.nidi.ramltester.util.CaptureLimits;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates requests that are checked by the given executor, as soon as the body of their response has been read completely or closed.
+ */
+public class RamlAsyncClientHttpRequestFactory implements AsyncClientHttpRequestFactory {
+    private final AsyncClientHttpRequestFactory delegate;
+    private final RamlChecker checker;
+    private final boolean notSending;
+    private final ReportStore reportStore;
+    private final Executor checkExecutor;
+    private final CaptureLimits limits;
+
+    public RamlAsyncClientHttpRequestFactory(AsyncClientHttpRequestFactory delegate, RamlChecker checker, boolean notSending, ReportStore reportStore, Executor checkExecutor) {
+        this(delegate, checker, notSending, reportStore, checkExecutor, CaptureLimits.unlimited());
+    }
+
+    public RamlAsyncClientHttpRequestFactory(AsyncClientHttpRequestFactory delegate, RamlChecker checker, boolean notSending, ReportStore reportStore,
+                                             Executor checkExecutor, CaptureLimits limits) {
+        this.delegate = delegate;
+        this.checker = checker;
+        this.notSending = notSending;
+        this.reportStore = reportStore;
+        this.checkExecutor = checkExecutor;
+        this.limits = limits;
+    }
+
+    @Override
+    public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new CheckingAsyncClientHttpRequest(delegate.createAsyncRequest(uri, httpMethod));
+    }
+
+    private class CheckingAsyncClientHttpRequest implements AsyncClientHttpRequest {
+        private final AsyncClientHttpRequest request;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        public CheckingAsyncClientHttpRequest(AsyncClientHttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public ListenableFuture<ClientHttpResponse> executeAsync() throws IOException {
+            final byte[] bytes = body.toByteArray();
+            final SpringHttpRequestRamlRequest ramlRequest = new SpringHttpRequestRamlRequest(this, bytes);
+            if (notSending) {
+                CheckingClientHttpResponse.checkRequest(ramlRequest, checker, reportStore, checkExecutor);
+                final ListenableFutureTask<ClientHttpResponse> response = new ListenableFutureTask<>(new Callable<ClientHttpResponse>() {
+                    @Override
+                    public ClientHttpResponse call() {
+                        return new MockClientHttpResponse((byte[]) null, HttpStatus.NO_CONTENT);
+                    }
+                });
+                response.run();
+                return response;
+            }
+            request.getBody().write(bytes);
+            return new ListenableFutureAdapter<ClientHttpResponse, ClientHttpResponse>(request.executeAsync()) {
+                @Override
+                protected ClientHttpResponse adapt(ClientHttpResponse response) throws ExecutionException {
+                    try {
+                        return new CheckingClientHttpResponse(response, ramlRequest, checker, reportStore, checkExecutor, limits);
+                    } catch (IOException e) {
+                        throw new ExecutionException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return request.getURI();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return request.getHeaders();
+        }
+    }
+}
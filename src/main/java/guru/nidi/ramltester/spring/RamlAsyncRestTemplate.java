@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.spring;
+
+import guru.nidi.ramltester.core.*;
+import guru.nidi.ramltester.util.CaptureLimits;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Checks the requests and responses on a separate executor, so the caller does not wait for the checks.
+ * A response is checked as soon as its body has been read completely or it has been closed.
+ * The reports are stored by the executor's threads, getLastReport() returns the report of the check that finished last,
+ * on any thread. Use aggregating() or a CheckListener to get the report of a specific request.
+ */
+public class RamlAsyncRestTemplate extends AsyncRestTemplate {
+    private final RamlChecker ramlChecker;
+    private final boolean notSending;
+    private final ReportStore reportStore;
+    private final Executor checkExecutor;
+    private final CaptureLimits limits;
+    private final AsyncClientHttpRequestFactory originalRequestFactory;
+
+    private RamlAsyncRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, Executor checkExecutor, CaptureLimits limits,
+                                  AsyncClientHttpRequestFactory requestFactory, RestTemplate restTemplate) {
+        super(requestFactory, restTemplate);
+        this.ramlChecker = ramlChecker;
+        this.notSending = notSending;
+        this.reportStore = reportStore;
+        this.checkExecutor = checkExecutor;
+        this.limits = limits;
+        this.originalRequestFactory = requestFactory;
+        setAsyncRequestFactory(new RamlAsyncClientHttpRequestFactory(requestFactory, ramlChecker, notSending, reportStore, checkExecutor, limits));
+    }
+
+    private RamlAsyncRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, CaptureLimits limits, RamlAsyncRestTemplate restTemplate) {
+        this(ramlChecker, notSending, reportStore, restTemplate.checkExecutor, limits, restTemplate.originalRequestFactory, (RestTemplate) restTemplate.getRestOperations());
+    }
+
+    public RamlAsyncRestTemplate(RamlChecker ramlChecker, AsyncClientHttpRequestFactory requestFactory, Executor checkExecutor) {
+        this(ramlChecker, false, new SharedReportStore(), checkExecutor, CaptureLimits.unlimited(), requestFactory, new RestTemplate());
+    }
+
+    public RamlAsyncRestTemplate notSending() {
+        return new RamlAsyncRestTemplate(ramlChecker, true, reportStore, limits, this);
+    }
+
+    public RamlAsyncRestTemplate aggregating(ReportAggregator aggregator) {
+        return new RamlAsyncRestTemplate(ramlChecker, notSending, new AggregatingReportStore(reportStore, aggregator), limits, this);
+    }
+
+    /**
+     * Capture response bodies only up to the given limits.
+     * The schemas of bodies that exceed the limits are not validated.
+     */
+    public RamlAsyncRestTemplate capturing(CaptureLimits limits) {
+        return new RamlAsyncRestTemplate(ramlChecker, notSending, reportStore, limits, this);
+    }
+
+    public RamlReport getLastReport() {
+        return reportStore.getLastReport();
+    }
+}
@@ -18,6 +18,7 @@ package guru.nidi.ramltester.spring;
 import guru.nidi.ramltester.core.RamlChecker;
 import guru.nidi.ramltester.core.RamlReport;
 import guru.nidi.ramltester.core.ReportStore;
+import guru.nidi.ramltester.util.CaptureLimits;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpRequestExecution;
@@ -26,6 +27,7 @@ import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.mock.http.client.MockClientHttpResponse;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -34,15 +36,37 @@ public class RamlRequestInterceptor implements ClientHttpRequestInterceptor {
     private final RamlChecker checker;
     private final boolean notSending;
     private final ReportStore reportStore;
+    private final Executor checkExecutor;
+    private final CaptureLimits limits;
 
     public RamlRequestInterceptor(RamlChecker checker, boolean notSending, ReportStore reportStore) {
+        this(checker, notSending, reportStore, null);
+    }
+
+    /**
+     * @param checkExecutor if not null, the checks are executed by this executor.
+     *                      The response is not buffered but captured while it is read and checked when it has been read completely or closed.
+     */
+    public RamlRequestInterceptor(RamlChecker checker, boolean notSending, ReportStore reportStore, Executor checkExecutor) {
+        this(checker, notSending, reportStore, checkExecutor, CaptureLimits.unlimited());
+    }
+
+    /**
+     * @param limits the limits for capturing the response bodies that are checked by the checkExecutor.
+     */
+    public RamlRequestInterceptor(RamlChecker checker, boolean notSending, ReportStore reportStore, Executor checkExecutor, CaptureLimits limits) {
         this.checker = checker;
         this.notSending = notSending;
         this.reportStore = reportStore;
+        this.checkExecutor = checkExecutor;
+        this.limits = limits;
     }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (checkExecutor != null) {
+            return interceptAsync(request, body, execution);
+        }
         reportStore.storeReport(null);
         final SpringHttpRequestRamlRequest ramlRequest = new SpringHttpRequestRamlRequest(request, body);
         final RamlReport report;
@@ -58,4 +82,13 @@ public class RamlRequestInterceptor implements ClientHttpRequestInterceptor {
         reportStore.storeReport(report);
         return response;
     }
+
+    private ClientHttpResponse interceptAsync(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        final SpringHttpRequestRamlRequest ramlRequest = new SpringHttpRequestRamlRequest(request, body);
+        if (notSending) {
+            CheckingClientHttpResponse.checkRequest(ramlRequest, checker, reportStore, checkExecutor);
+            return new MockClientHttpResponse((byte[]) null, HttpStatus.NO_CONTENT);
+        }
+        return new CheckingClientHttpResponse(execution.execute(request, body), ramlRequest, checker, reportStore, checkExecutor, limits);
+    }
 }
@@ -16,6 +16,7 @@
 package guru.nidi.ramltester.spring;
 
 import guru.nidi.ramltester.core.*;
+import guru.nidi.ramltester.util.CaptureLimits;
 import org.springframework.http.client.BufferingClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -23,6 +24,7 @@ import org.springframework.http.client.InterceptingClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -31,47 +33,70 @@ public class RamlRestTemplate extends RestTemplate {
     private final RamlChecker ramlChecker;
     private final boolean notSending;
     private final ReportStore reportStore;
+    private final Executor checkExecutor;
+    private final CaptureLimits limits;
     private final ClientHttpRequestFactory originalRequestFactory;
     private final RamlRequestInterceptor interceptor;
 
-    private RamlRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, ClientHttpRequestFactory requestFactory) {
+    private RamlRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, Executor checkExecutor, CaptureLimits limits, ClientHttpRequestFactory requestFactory) {
         this.ramlChecker = ramlChecker;
         this.notSending = notSending;
         this.reportStore = reportStore;
+        this.checkExecutor = checkExecutor;
+        this.limits = limits;
         this.originalRequestFactory = requestFactory;
-        interceptor = new RamlRequestInterceptor(ramlChecker, notSending, reportStore);
+        interceptor = new RamlRequestInterceptor(ramlChecker, notSending, reportStore, checkExecutor, limits);
         setRequestFactory(new InterceptingClientHttpRequestFactory(
-                new BufferingClientHttpRequestFactory(requestFactory), Collections.<ClientHttpRequestInterceptor>singletonList(interceptor)));
+                checkExecutor == null ? new BufferingClientHttpRequestFactory(requestFactory) : requestFactory,
+                Collections.<ClientHttpRequestInterceptor>singletonList(interceptor)));
     }
 
-    private RamlRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, RamlRestTemplate restTemplate) {
-        this(ramlChecker, notSending, reportStore, restTemplate.originalRequestFactory);
+    private RamlRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, Executor checkExecutor, CaptureLimits limits, RamlRestTemplate restTemplate) {
+        this(ramlChecker, notSending, reportStore, checkExecutor, limits, restTemplate.originalRequestFactory);
         init(restTemplate);
     }
 
-    private RamlRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, RestTemplate restTemplate) {
-        this(ramlChecker, notSending, reportStore, restTemplate.getRequestFactory());
+    private RamlRestTemplate(RamlChecker ramlChecker, boolean notSending, ReportStore reportStore, Executor checkExecutor, CaptureLimits limits, RestTemplate restTemplate) {
+        this(ramlChecker, notSending, reportStore, checkExecutor, limits, restTemplate.getRequestFactory());
         init(restTemplate);
     }
 
     public RamlRestTemplate(RamlChecker ramlChecker, ClientHttpRequestFactory requestFactory) {
-        this(ramlChecker, false, new ThreadLocalReportStore(), requestFactory);
+        this(ramlChecker, false, new ThreadLocalReportStore(), null, CaptureLimits.unlimited(), requestFactory);
     }
 
     public RamlRestTemplate(RamlChecker ramlChecker, RestTemplate restTemplate) {
-        this(ramlChecker, false, new ThreadLocalReportStore(), restTemplate);
+        this(ramlChecker, false, new ThreadLocalReportStore(), null, CaptureLimits.unlimited(), restTemplate);
     }
 
     public RamlRestTemplate(RamlChecker ramlChecker, RamlRestTemplate restTemplate) {
-        this(ramlChecker, false, new ThreadLocalReportStore(), restTemplate);
+        this(ramlChecker, false, new ThreadLocalReportStore(), null, CaptureLimits.unlimited(), restTemplate);
     }
 
     public RamlRestTemplate notSending() {
-        return new RamlRestTemplate(ramlChecker, true, reportStore, this);
+        return new RamlRestTemplate(ramlChecker, true, reportStore, checkExecutor, limits, this);
     }
 
     public RamlRestTemplate aggregating(ReportAggregator aggregator) {
-        return new RamlRestTemplate(ramlChecker, notSending, new AggregatingReportStore(reportStore, aggregator), this);
+        return new RamlRestTemplate(ramlChecker, notSending, new AggregatingReportStore(reportStore, aggregator), checkExecutor, limits, this);
+    }
+
+    /**
+     * Check asynchronously using the given executor.
+     * Responses are not buffered, their bodies are captured while they are read and checked when they have been read completely or closed.
+     * The reports are stored by the executor's threads, getLastReport() returns the report of the check that finished last,
+     * on any thread. Use aggregating() or a CheckListener to get the report of a specific request.
+     */
+    public RamlRestTemplate checkingAsync(Executor checkExecutor) {
+        return new RamlRestTemplate(ramlChecker, notSending, new SharedReportStore(reportStore), checkExecutor, limits, this);
+    }
+
+    /**
+     * Capture response bodies only up to the given limits when checking asynchronously.
+     * The schemas of bodies that exceed the limits are not validated.
+     */
+    public RamlRestTemplate capturing(CaptureLimits limits) {
+        return new RamlRestTemplate(ramlChecker, notSending, reportStore, checkExecutor, limits, this);
     }
 
     private void init(RestTemplate restTemplate) {
@@ -16,7 +16,7 @@
 package guru.nidi.ramltester.spring;
 
 import guru.nidi.ramltester.model.RamlResponse;
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import guru.nidi.ramltester.util.IoUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -98,7 +98,7 @@ public class SpringClientHttpResponseRamlResponse implements ClientHttpResponse,
     }
 
     @Override
-    public Values getHeaderValues() {
+    public ReadOnlyValues getHeaderValues() {
         return headerValuesOf(response.getHeaders());
     }
 }
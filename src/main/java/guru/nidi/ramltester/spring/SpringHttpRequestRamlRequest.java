@@ -16,6 +16,7 @@
 package guru.nidi.ramltester.spring;
 
 import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import guru.nidi.ramltester.model.Values;
 import guru.nidi.ramltester.util.FormDecoder;
 import guru.nidi.ramltester.util.UriComponents;
@@ -43,6 +44,10 @@ public class SpringHttpRequestRamlRequest implements RamlRequest {
         return (baseUri != null ? baseUri : uriComponents.getServer()) + uriComponents.getPath();
     }
 
+    String getPath() {
+        return uriComponents.getPath();
+    }
+
     @Override
     public String getMethod() {
         return request.getMethod().name();
@@ -59,7 +64,7 @@ public class SpringHttpRequestRamlRequest implements RamlRequest {
     }
 
     @Override
-    public Values getHeaderValues() {
+    public ReadOnlyValues getHeaderValues() {
         return headerValuesOf(request.getHeaders());
     }
 
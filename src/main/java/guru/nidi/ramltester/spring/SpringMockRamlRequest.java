@@ -16,7 +16,9 @@
 package guru.nidi.ramltester.spring;
 
 import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.servlet.ServletHeaderValues;
 import guru.nidi.ramltester.util.FileValue;
 import guru.nidi.ramltester.util.IoUtils;
 import guru.nidi.ramltester.util.UriComponents;
@@ -25,7 +27,6 @@ import org.springframework.mock.web.MockMultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +35,7 @@ import java.util.Map;
  */
 public class SpringMockRamlRequest implements RamlRequest {
     private final MockHttpServletRequest delegate;
+    private byte[] content;
 
     public SpringMockRamlRequest(MockHttpServletRequest delegate) {
         this.delegate = delegate;
@@ -68,17 +70,8 @@ public class SpringMockRamlRequest implements RamlRequest {
     }
 
     @Override
-    public Values getHeaderValues() {
-        final Values headers = new Values();
-        final Enumeration<String> names = delegate.getHeaderNames();
-        while (names.hasMoreElements()) {
-            final String name = names.nextElement();
-            final Enumeration<String> values = delegate.getHeaders(name);
-            while (values.hasMoreElements()) {
-                headers.addValue(name, values.nextElement());
-            }
-        }
-        return headers;
+    public ReadOnlyValues getHeaderValues() {
+        return new ServletHeaderValues(delegate);
     }
 
     @Override
@@ -88,8 +81,12 @@ public class SpringMockRamlRequest implements RamlRequest {
 
     @Override
     public byte[] getContent() {
+        if (content != null) {
+            return content;
+        }
         try {
-            return IoUtils.readIntoByteArray(delegate.getInputStream());
+            content = IoUtils.readIntoByteArray(delegate.getInputStream(), delegate.getContentLength());
+            return content;
         } catch (IOException e) {
             throw new RuntimeException("Could not read request body", e);
         }
@@ -16,14 +16,19 @@
 package guru.nidi.ramltester.spring;
 
 import guru.nidi.ramltester.model.RamlResponse;
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.model.HeaderValues;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.util.Iterator;
+import java.util.List;
+
 /**
  *
  */
 public class SpringMockRamlResponse implements RamlResponse {
     private final MockHttpServletResponse delegate;
+    private byte[] content;
 
     public SpringMockRamlResponse(MockHttpServletResponse delegate) {
         this.delegate = delegate;
@@ -41,15 +46,24 @@ public class SpringMockRamlResponse implements RamlResponse {
 
     @Override
     public byte[] getContent() {
-        return delegate.getContentAsByteArray();
+        if (content == null) {
+            content = delegate.getContentAsByteArray();
+        }
+        return content;
     }
 
     @Override
-    public Values getHeaderValues() {
-        final Values headers = new Values();
-        for (String name : delegate.getHeaderNames()) {
-            headers.addValues(name, delegate.getHeaders(name));
-        }
-        return headers;
+    public ReadOnlyValues getHeaderValues() {
+        return new HeaderValues() {
+            @Override
+            protected Iterator<String> headerNames() {
+                return delegate.getHeaderNames().iterator();
+            }
+
+            @Override
+            protected List<Object> headerValues(String name) {
+                return list(delegate.getHeaders(name));
+            }
+        };
     }
 }
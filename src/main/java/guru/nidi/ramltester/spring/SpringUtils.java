@@ -15,12 +15,13 @@
  */
 package guru.nidi.ramltester.spring;
 
-import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.model.HeaderValues;
+import guru.nidi.ramltester.model.ReadOnlyValues;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 /**
  *
@@ -34,11 +35,17 @@ class SpringUtils {
         return contentType == null ? null : contentType.toString();
     }
 
-    static Values headerValuesOf(HttpHeaders headers) {
-        final Values values = new Values();
-        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
-            values.addValues(entry.getKey(), entry.getValue());
-        }
-        return values;
+    static ReadOnlyValues headerValuesOf(final HttpHeaders headers) {
+        return new HeaderValues() {
+            @Override
+            protected Iterator<String> headerNames() {
+                return headers.keySet().iterator();
+            }
+
+            @Override
+            protected List<Object> headerValues(String name) {
+                return list(headers.get(name));
+            }
+        };
     }
 }
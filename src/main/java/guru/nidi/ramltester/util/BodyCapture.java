@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Captures a message body. It is kept in memory up to a given size, larger bodies are written to a temporary file.
+ * If the body exceeds the total limit, capturing stops and the body is marked as too large.
+ */
+public class BodyCapture extends OutputStream {
+    private final int memoryLimit;
+    private final long totalLimit;
+    private final ChunkedOutputStream memory = new ChunkedOutputStream();
+    private byte[] exact;
+    private File file;
+    private OutputStream fileOut;
+    private long size;
+    private boolean tooLarge;
+
+    public BodyCapture(int memoryLimit, long totalLimit) {
+        this(memoryLimit, totalLimit, -1);
+    }
+
+    /**
+     * @param expectedSize the expected size of the body (e.g. from Content-Length), or -1 if unknown.
+     *                     A body of the expected size is captured in a single array and handed out without copying.
+     *                     Bodies larger than the memory limit or 1 MB are captured in chunks.
+     */
+    public BodyCapture(int memoryLimit, long totalLimit, long expectedSize) {
+        this.memoryLimit = memoryLimit;
+        this.totalLimit = totalLimit;
+        if (expectedSize > 0 && expectedSize <= Math.min(Math.min(memoryLimit, totalLimit), IoUtils.MAX_PRESIZE)) {
+            exact = new byte[(int) expectedSize];
+        }
+    }
+
+    public static BodyCapture unlimited() {
+        return new BodyCapture(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (prepare(1)) {
+            if (exact != null) {
+                exact[(int) size] = (byte) b;
+            } else if (fileOut == null) {
+                memory.write(b);
+            } else {
+                fileOut.write(b);
+            }
+        }
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (prepare(len)) {
+            if (exact != null) {
+                System.arraycopy(b, off, exact, (int) size, len);
+            } else if (fileOut == null) {
+                memory.write(b, off, len);
+            } else {
+                fileOut.write(b, off, len);
+            }
+        }
+        size += len;
+    }
+
+    /**
+     * Make room for the next bytes, switching from the exact array to memory and from memory to a file when needed.
+     *
+     * @return if the bytes are to be captured
+     */
+    private boolean prepare(int len) throws IOException {
+        if (tooLarge) {
+            return false;
+        }
+        if (size + len > totalLimit) {
+            tooLarge = true;
+            release();
+            return false;
+        }
+        if (exact != null && size + len > exact.length) {
+            unexact();
+        }
+        if (exact == null && fileOut == null && size + len > memoryLimit) {
+            spill();
+        }
+        return true;
+    }
+
+    private void unexact() {
+        memory.write(exact, 0, (int) size);
+        exact = null;
+    }
+
+    private void spill() throws IOException {
+        file = File.createTempFile("raml-body", ".tmp");
+        fileOut = new BufferedOutputStream(new FileOutputStream(file));
+        final InputStream in = memory.getInputStream();
+        final byte[] buf = new byte[8192];
+        int read;
+        while ((read = in.read(buf)) > 0) {
+            fileOut.write(buf, 0, read);
+        }
+        memory.release();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOut != null) {
+            fileOut.flush();
+        }
+    }
+
+    /**
+     * @return the number of bytes written, including the ones that have not been captured because the body is too large
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isTooLarge() {
+        return tooLarge;
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * @return the captured content, or an empty stream if the body is too large
+     */
+    public InputStream getInputStream() throws IOException {
+        if (tooLarge) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (file != null) {
+            fileOut.flush();
+            return new BufferedInputStream(new FileInputStream(file));
+        }
+        if (exact != null) {
+            return new ByteArrayInputStream(exact, 0, (int) size);
+        }
+        return memory.getInputStream();
+    }
+
+    /**
+     * @return the captured content, or an empty array if the body is too large
+     */
+    public byte[] toByteArray() throws IOException {
+        if (tooLarge) {
+            return new byte[0];
+        }
+        if (file != null) {
+            return IoUtils.readIntoByteArray(getInputStream());
+        }
+        if (exact != null) {
+            return size == exact.length ? exact : Arrays.copyOf(exact, (int) size);
+        }
+        return memory.toByteArray();
+    }
+
+    /**
+     * Stop capturing because the content is not available completely.
+     * It is treated like a body that exceeds the limits.
+     */
+    public void discard() {
+        tooLarge = true;
+        release();
+    }
+
+    /**
+     * Free the resources used for capturing, the captured content is lost.
+     */
+    public void release() {
+        exact = null;
+        memory.release();
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                //ignore
+            }
+            fileOut = null;
+        }
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Limits for capturing message bodies: how much is kept in memory and how much is captured at all.
+ * Bodies exceeding the total limit are not validated.
+ * Different limits can be defined for media types and actions. Action limits take precedence over media type limits.
+ */
+public class CaptureLimits {
+    private final int memoryLimit;
+    private final long totalLimit;
+    private final List<Rule> rules;
+
+    private CaptureLimits(int memoryLimit, long totalLimit, List<Rule> rules) {
+        this.memoryLimit = memoryLimit;
+        this.totalLimit = totalLimit;
+        this.rules = rules;
+    }
+
+    public static CaptureLimits unlimited() {
+        return of(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static CaptureLimits of(int memoryLimit, long totalLimit) {
+        return new CaptureLimits(memoryLimit, totalLimit, Collections.<Rule>emptyList());
+    }
+
+    public CaptureLimits forMediaType(String mediaType, int memoryLimit, long totalLimit) {
+        return with(new Rule(null, null, MediaType.valueOf(mediaType), memoryLimit, totalLimit));
+    }
+
+    /**
+     * @param path the path of the request, segments in curly braces match any value
+     */
+    public CaptureLimits forAction(String method, String path, int memoryLimit, long totalLimit) {
+        return with(new Rule(method, path.split("/"), null, memoryLimit, totalLimit));
+    }
+
+    private CaptureLimits with(Rule rule) {
+        final List<Rule> newRules = new ArrayList<>(rules);
+        newRules.add(rule);
+        return new CaptureLimits(memoryLimit, totalLimit, newRules);
+    }
+
+    public BodyCapture newCapture(String method, String path, String contentType) {
+        return newCapture(method, path, contentType, -1);
+    }
+
+    public BodyCapture newCapture(String method, String path, String contentType, long expectedSize) {
+        final MediaType mediaType = mediaType(contentType);
+        Rule mediaTypeRule = null;
+        for (Rule rule : rules) {
+            if (rule.method != null && rule.matchesAction(method, path)) {
+                return rule.newCapture(expectedSize);
+            }
+            if (mediaTypeRule == null && rule.mediaType != null && mediaType != null && mediaType.isCompatibleWith(rule.mediaType)) {
+                mediaTypeRule = rule;
+            }
+        }
+        return mediaTypeRule != null
+                ? mediaTypeRule.newCapture(expectedSize)
+                : new BodyCapture(memoryLimit, totalLimit, expectedSize);
+    }
+
+    private static MediaType mediaType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        try {
+            return MediaType.valueOf(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private static class Rule {
+        private final String method;
+        private final String[] path;
+        private final MediaType mediaType;
+        private final int memoryLimit;
+        private final long totalLimit;
+
+        public Rule(String method, String[] path, MediaType mediaType, int memoryLimit, long totalLimit) {
+            this.method = method;
+            this.path = path;
+            this.mediaType = mediaType;
+            this.memoryLimit = memoryLimit;
+            this.totalLimit = totalLimit;
+        }
+
+        public boolean matchesAction(String method, String path) {
+            if (!this.method.equalsIgnoreCase(method) || path == null) {
+                return false;
+            }
+            final String[] parts = path.split("/");
+            if (parts.length != this.path.length) {
+                return false;
+            }
+            for (int i = 0; i < parts.length; i++) {
+                if (!this.path[i].equals(parts[i]) && !(this.path[i].startsWith("{") && this.path[i].endsWith("}"))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public BodyCapture newCapture(long expectedSize) {
+            return new BodyCapture(memoryLimit, totalLimit, expectedSize);
+        }
+    }
+}
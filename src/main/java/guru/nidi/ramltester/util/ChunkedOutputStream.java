@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects written bytes in fixed size chunks that are taken from a pool shared by all instances.
+ * The content can be read without copying it and the chunks can be returned to the pool when no longer needed.
+ */
+public class ChunkedOutputStream extends OutputStream {
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int MAX_POOLED = 512;
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int size;
+
+    @Override
+    public void write(int b) {
+        final int pos = size % CHUNK_SIZE;
+        if (pos == 0 && size / CHUNK_SIZE == chunks.size()) {
+            chunks.add(takeChunk());
+        }
+        chunks.get(size / CHUNK_SIZE)[pos] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            final int pos = size % CHUNK_SIZE;
+            if (pos == 0 && size / CHUNK_SIZE == chunks.size()) {
+                chunks.add(takeChunk());
+            }
+            final int n = Math.min(len, CHUNK_SIZE - pos);
+            System.arraycopy(b, off, chunks.get(size / CHUNK_SIZE), pos, n);
+            size += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a stream reading the content written so far, without copying it
+     */
+    public InputStream getInputStream() {
+        return new ChunkInputStream(size);
+    }
+
+    public byte[] toByteArray() {
+        final byte[] res = new byte[size];
+        for (int i = 0, pos = 0; pos < size; i++, pos += CHUNK_SIZE) {
+            System.arraycopy(chunks.get(i), 0, res, pos, Math.min(CHUNK_SIZE, size - pos));
+        }
+        return res;
+    }
+
+    /**
+     * Return the chunks to the pool. The stream is empty afterwards.
+     */
+    public void release() {
+        for (byte[] chunk : chunks) {
+            if (POOLED.incrementAndGet() <= MAX_POOLED) {
+                POOL.offer(chunk);
+            } else {
+                POOLED.decrementAndGet();
+            }
+        }
+        chunks.clear();
+        size = 0;
+    }
+
+    private static byte[] takeChunk() {
+        final byte[] chunk = POOL.poll();
+        if (chunk == null) {
+            return new byte[CHUNK_SIZE];
+        }
+        POOLED.decrementAndGet();
+        return chunk;
+    }
+
+    private class ChunkInputStream extends InputStream {
+        private final int end;
+        private int pos;
+
+        ChunkInputStream(int end) {
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            if (pos >= end) {
+                return -1;
+            }
+            final byte b = chunks.get(pos / CHUNK_SIZE)[pos % CHUNK_SIZE];
+            pos++;
+            return b & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos >= end) {
+                return -1;
+            }
+            final int offset = pos % CHUNK_SIZE;
+            final int n = Math.min(len, Math.min(end - pos, CHUNK_SIZE - offset));
+            System.arraycopy(chunks.get(pos / CHUNK_SIZE), offset, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return end - pos;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final int skipped = (int) Math.max(0, Math.min(n, end - pos));
+            pos += skipped;
+            return skipped;
+        }
+    }
+}
@@ -16,15 +16,13 @@
 package guru.nidi.ramltester.util;
 
 import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.StreamingMessage;
 import guru.nidi.ramltester.model.Values;
-import org.apache.commons.fileupload.FileItemIterator;
-import org.apache.commons.fileupload.FileItemStream;
-import org.apache.commons.fileupload.FileUploadException;
-import org.apache.commons.fileupload.RequestContext;
-import org.apache.commons.fileupload.servlet.ServletFileUpload;
 
 import java.io.*;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -47,74 +45,134 @@ public class FormDecoder {
             return new Values();
         }
         final MediaType type = MediaType.valueOf(request.getContentType());
-        if (type.isCompatibleWith(URL_ENCODED)) {
-            final String charset = type.getCharset(DEFAULT_CHARSET);
-            try {
-                final String content = IoUtils.readIntoString(new InputStreamReader(new ByteArrayInputStream(request.getContent()), charset));
-                return decodeUrlEncoded(content, charset);
-            } catch (IOException e) {
-                throw new IllegalArgumentException("Unknown charset " + charset);
+        if (!type.isCompatibleWith(URL_ENCODED) && !type.isCompatibleWith(MULTIPART)) {
+            return new Values();
+        }
+        try (final InputStream content = contentStream(request)) {
+            if (content == null) {
+                return new Values();
             }
+            return type.isCompatibleWith(URL_ENCODED)
+                    ? decodeUrlEncoded(content, type.getCharset(DEFAULT_CHARSET))
+                    : new MultipartParser(content, charset(request.getContentType())).parse(request.getContentType());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read content", e);
         }
-        if (type.isCompatibleWith(MULTIPART)) {
-            return decodeMultipart(request);
+    }
+
+    /**
+     * Streaming messages are read from their stream, so that content which has been spilled to disk is not loaded into memory.
+     */
+    private static InputStream contentStream(RamlRequest request) throws IOException {
+        if (request instanceof StreamingMessage) {
+            return new BufferedInputStream(((StreamingMessage) request).getContentStream());
         }
-        return new Values();
+        final byte[] content = request.getContent();
+        return content == null ? null : new ByteArrayInputStream(content);
     }
 
     private static String charset(String contentType) {
         return contentType == null ? DEFAULT_CHARSET : MediaType.valueOf(contentType).getCharset(DEFAULT_CHARSET);
     }
 
-    private Values decodeMultipart(RamlRequest request) {
+    private Values decodeUrlEncoded(InputStream content, String charset) throws IOException {
+        final Charset cs;
         try {
-            final Values values = new Values();
-            final RamlRequestFileUploadContext context = new RamlRequestFileUploadContext(request);
-            final FileItemIterator iter = new ServletFileUpload().getItemIterator(context);
-            while (iter.hasNext()) {
-                final FileItemStream itemStream = iter.next();
-                values.addValue(itemStream.getFieldName(), valueOf(itemStream));
+            cs = Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown charset " + charset);
+        }
+        if (!isAsciiCompatible(cs)) {
+            return decodeUrlEncoded(new String(IoUtils.readIntoByteArray(content), cs), charset);
+        }
+        final Values values = new Values();
+        final Token token = new Token();
+        String name = null;
+        int b;
+        while ((b = content.read()) >= 0) {
+            if (b == '&') {
+                addValue(values, name, token, cs);
+                name = null;
+            } else if (b == '=' && name == null) {
+                //a pair without name is ignored
+                if (token.length > 0) {
+                    name = token.decode(cs);
+                }
+            } else {
+                token.add((byte) b);
             }
-            return values;
-        } catch (IOException | FileUploadException e) {
-            throw new IllegalArgumentException("Could not parse multipart request", e);
         }
+        addValue(values, name, token, cs);
+        return values;
     }
 
-    private Object valueOf(FileItemStream itemStream) throws IOException {
-        if (itemStream.isFormField()) {
-            final String charset = charset(itemStream.getContentType());
-            return IoUtils.readIntoString(new InputStreamReader(itemStream.openStream(), charset));
+    private static void addValue(Values values, String name, Token token, Charset cs) {
+        if (name != null) {
+            values.addValue(name, token.decode(cs));
+        } else if (token.length > 0) {
+            values.addValue(token.decode(cs), null);
         }
-        return new FileValue();
     }
 
-    private static class RamlRequestFileUploadContext implements RequestContext {
-        private final RamlRequest request;
+    /**
+     * The bytes of a name or value, they are decoded once the token is complete.
+     */
+    private static class Token {
+        private byte[] bytes = new byte[64];
+        private int length;
 
-        private RamlRequestFileUploadContext(RamlRequest request) {
-            this.request = request;
+        void add(byte b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = b;
         }
 
-        @Override
-        public String getCharacterEncoding() {
-            return charset(request.getContentType());
+        String decode(Charset charset) {
+            final String decoded = urlDecode(bytes, 0, length, charset);
+            length = 0;
+            return decoded;
         }
+    }
 
-        @Override
-        public String getContentType() {
-            return request.getContentType();
-        }
+    private static boolean isAsciiCompatible(Charset charset) {
+        return (charset.name().equals("UTF-8") || charset.newEncoder().maxBytesPerChar() == 1)
+                && Arrays.equals(new byte[]{'&', '=', '+', '%'}, "&=+%".getBytes(charset));
+    }
 
-        @Override
-        public int getContentLength() {
-            return request.getContent().length;
+    private static String urlDecode(byte[] content, int start, int end, Charset charset) {
+        int pos = start;
+        while (pos < end && content[pos] != '%' && content[pos] != '+') {
+            pos++;
         }
-
-        @Override
-        public InputStream getInputStream() throws IOException {
-            return new ByteArrayInputStream(request.getContent());
+        if (pos == end) {
+            return new String(content, start, end - start, charset);
+        }
+        final byte[] decoded = new byte[end - start];
+        int len = pos - start;
+        System.arraycopy(content, start, decoded, 0, len);
+        while (pos < end) {
+            final byte b = content[pos];
+            if (b == '+') {
+                decoded[len++] = ' ';
+                pos++;
+            } else if (b == '%') {
+                if (pos + 2 >= end) {
+                    throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+                }
+                final int high = Character.digit(content[pos + 1], 16);
+                final int low = Character.digit(content[pos + 2], 16);
+                if (high < 0 || low < 0) {
+                    throw new IllegalArgumentException("URLDecoder: Illegal hex characters in escape (%) pattern");
+                }
+                decoded[len++] = (byte) (high << 4 | low);
+                pos += 3;
+            } else {
+                decoded[len++] = b;
+                pos++;
+            }
         }
+        return new String(decoded, 0, len, charset);
     }
 
     private Values decodeUrlEncoded(String content, String charset) {
@@ -15,15 +15,21 @@
  */
 package guru.nidi.ramltester.util;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.Reader;
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  *
  */
 public class IoUtils {
+    /**
+     * Expected sizes come from headers like Content-Length and are not trusted beyond this number of bytes.
+     */
+    static final int MAX_PRESIZE = 1024 * 1024;
+
     private IoUtils() {
     }
 
@@ -44,19 +50,79 @@ public class IoUtils {
         }
     }
 
+    /**
+     * @param expectedSize the expected number of bytes or -1 if unknown.
+     *                     If the stream contains exactly this number of bytes, they are read without intermediate copies.
+     *                     Larger sizes than {@link #MAX_PRESIZE} are ignored.
+     */
+    public static byte[] readIntoByteArray(InputStream in, long expectedSize) throws IOException {
+        if (in == null || expectedSize < 0 || expectedSize > MAX_PRESIZE) {
+            return readIntoByteArray(in);
+        }
+        try {
+            final byte[] res = new byte[(int) expectedSize];
+            int pos = 0;
+            int read;
+            while (pos < res.length && (read = in.read(res, pos, res.length - pos)) > 0) {
+                pos += read;
+            }
+            if (pos < res.length) {
+                return Arrays.copyOf(res, pos);
+            }
+            final int next = in.read();
+            if (next < 0) {
+                return res;
+            }
+            try (final ByteArrayOutputStream out = new ByteArrayOutputStream(res.length + 1024)) {
+                out.write(res);
+                out.write(next);
+                copy(in, out);
+                return out.toByteArray();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @param contentEncoding the value of the Content-Encoding header, may be null.
+     * @return a stream decoding the given stream according to the content encoding. Supports gzip and deflate.
+     */
+    public static InputStream decoded(InputStream in, String contentEncoding) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding) || "x-gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(in);
+        }
+        if ("deflate".equalsIgnoreCase(contentEncoding)) {
+            //some servers send raw deflate data instead of the zlib format required by the spec
+            final PushbackInputStream pushback = new PushbackInputStream(in, 2);
+            final byte[] head = new byte[2];
+            final int read = pushback.read(head);
+            if (read > 0) {
+                pushback.unread(head, 0, read);
+            }
+            final boolean zlib = read == 2 && (head[0] & 0x0f) == 8 && ((head[0] & 0xff) << 8 | (head[1] & 0xff)) % 31 == 0;
+            return new InflaterInputStream(pushback, new Inflater(!zlib));
+        }
+        return in;
+    }
+
     public static byte[] readIntoByteArray(InputStream in) throws IOException {
         if (in == null) {
             return new byte[0];
         }
         try (final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            final byte[] buf = new byte[1000];
-            int read;
-            while ((read = in.read(buf)) > 0) {
-                out.write(buf, 0, read);
-            }
+            copy(in, out);
             return out.toByteArray();
         } finally {
             in.close();
         }
     }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        final byte[] buf = new byte[8192];
+        int read;
+        while ((read = in.read(buf)) > 0) {
+            out.write(buf, 0, read);
+        }
+    }
 }
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import guru.nidi.ramltester.model.Values;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.*;
+
+/**
+ * Decodes a multipart/form-data body in a single pass over a stream.
+ * The bodies of file parts are skipped, only the values of form fields are kept in memory.
+ * The format is interpreted like commons-fileupload does.
+ */
+final class MultipartParser {
+    private static final String DEFAULT_CHARSET = "iso-8859-1";
+    private static final byte[] HEADERS_END = {'\r', '\n', '\r', '\n'};
+
+    private final InputStream content;
+    private final String headerCharset;
+    private final Values values = new Values();
+
+    MultipartParser(InputStream content, String headerCharset) {
+        this.content = content;
+        this.headerCharset = headerCharset;
+    }
+
+    Values parse(String contentType) throws IOException {
+        parseParts(new Scanner(content), boundary(contentType), null);
+        return values;
+    }
+
+    private void parseParts(Scanner scanner, byte[] boundary, String fileFieldName) throws IOException {
+        //the first delimiter is not necessarily preceded by CRLF
+        final byte[] delimiter = delimiter(boundary);
+        final Scanner.Section preamble = scanner.until(delimiter, 2);
+        preamble.drain();
+        if (!preamble.isDelimited()) {
+            return;
+        }
+        while (readBoundaryEnd(scanner)) {
+            final Map<String, String> headers;
+            if (scanner.skip("\r\n")) {
+                headers = Collections.emptyMap();
+            } else {
+                final Scanner.Section section = scanner.until(HEADERS_END, 0);
+                final byte[] block = section.readAll();
+                if (!section.isDelimited()) {
+                    throw malformed("Header section has no end");
+                }
+                headers = headers(block);
+            }
+            final Scanner.Section body = scanner.until(delimiter, 0);
+            addPart(headers, body, fileFieldName);
+            body.drain();
+            if (!body.isDelimited()) {
+                throw malformed("Stream ended unexpectedly");
+            }
+        }
+    }
+
+    private boolean readBoundaryEnd(Scanner scanner) throws IOException {
+        if (scanner.skip("\r\n")) {
+            return true;
+        }
+        if (scanner.skip("--")) {
+            return false;
+        }
+        throw malformed("Unexpected characters follow a boundary");
+    }
+
+    private void addPart(Map<String, String> headers, Scanner.Section body, String fileFieldName) throws IOException {
+        final String disposition = headers.get("content-disposition");
+        final String partType = headers.get("content-type");
+        if (fileFieldName != null) {
+            if (fileName(disposition) != null) {
+                values.addValue(fileFieldName, new FileValue());
+            }
+            return;
+        }
+        final String fieldName = fieldName(disposition);
+        if (fieldName == null) {
+            return;
+        }
+        if (partType != null && partType.toLowerCase(Locale.ENGLISH).startsWith("multipart/mixed")) {
+            parseParts(new Scanner(body), boundary(partType), fieldName);
+            return;
+        }
+        if (fileName(disposition) != null) {
+            values.addValue(fieldName, new FileValue());
+            return;
+        }
+        final String charset = partType == null ? DEFAULT_CHARSET : MediaType.valueOf(partType).getCharset(DEFAULT_CHARSET);
+        try {
+            values.addValue(fieldName, new String(body.readAll(), charset));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalArgumentException("Could not parse multipart request", e);
+        }
+    }
+
+    private Map<String, String> headers(byte[] content) {
+        final Map<String, String> headers = new HashMap<>();
+        final String block;
+        try {
+            block = new String(content, headerCharset);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalArgumentException("Could not parse multipart request", e);
+        }
+        final String[] lines = block.split("\r\n");
+        for (int i = 0; i < lines.length; i++) {
+            final StringBuilder header = new StringBuilder(lines[i]);
+            while (i + 1 < lines.length && lines[i + 1].length() > 0 && (lines[i + 1].charAt(0) == ' ' || lines[i + 1].charAt(0) == '\t')) {
+                header.append(' ').append(lines[++i].trim());
+            }
+            final int colon = header.indexOf(":");
+            if (colon >= 0) {
+                final String name = header.substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+                if (!headers.containsKey(name)) {
+                    headers.put(name, header.substring(colon + 1).trim());
+                }
+            }
+        }
+        return headers;
+    }
+
+    private static String fieldName(String disposition) {
+        if (disposition == null || !disposition.toLowerCase(Locale.ENGLISH).startsWith("form-data")) {
+            return null;
+        }
+        final String name = parameters(disposition, ";").get("name");
+        return name == null ? null : name.trim();
+    }
+
+    private static String fileName(String disposition) {
+        if (disposition == null) {
+            return null;
+        }
+        final String lower = disposition.toLowerCase(Locale.ENGLISH);
+        if (!lower.startsWith("form-data") && !lower.startsWith("attachment")) {
+            return null;
+        }
+        final Map<String, String> params = parameters(disposition, ";");
+        if (!params.containsKey("filename")) {
+            return null;
+        }
+        final String fileName = params.get("filename");
+        return fileName == null ? "" : fileName.trim();
+    }
+
+    private static byte[] boundary(String contentType) {
+        final String boundary = contentType == null ? null : parameters(contentType, ";,").get("boundary");
+        if (boundary == null) {
+            throw malformed("No multipart boundary found");
+        }
+        try {
+            return boundary.getBytes("iso-8859-1");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * @return the parameters with lower case names. Values are unquoted, parameters without value are mapped to null.
+     */
+    static Map<String, String> parameters(String s, String separators) {
+        final Map<String, String> params = new HashMap<>();
+        int pos = 0;
+        while (pos < s.length()) {
+            int nameEnd = pos;
+            while (nameEnd < s.length() && s.charAt(nameEnd) != '=' && separators.indexOf(s.charAt(nameEnd)) < 0) {
+                nameEnd++;
+            }
+            final String name = s.substring(pos, nameEnd).trim().toLowerCase(Locale.ENGLISH);
+            String value = null;
+            pos = nameEnd;
+            if (pos < s.length() && s.charAt(pos) == '=') {
+                int valueEnd = ++pos;
+                boolean quoted = false;
+                while (valueEnd < s.length() && (quoted || separators.indexOf(s.charAt(valueEnd)) < 0)) {
+                    if (s.charAt(valueEnd) == '"') {
+                        quoted = !quoted;
+                    }
+                    valueEnd++;
+                }
+                value = s.substring(pos, valueEnd).trim();
+                if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                    value = value.substring(1, value.length() - 1);
+                }
+                pos = valueEnd;
+            }
+            if (name.length() > 0) {
+                params.put(name, value);
+            }
+            pos++;
+        }
+        return params;
+    }
+
+    private static byte[] delimiter(byte[] boundary) {
+        final byte[] delimiter = new byte[boundary.length + 4];
+        delimiter[0] = '\r';
+        delimiter[1] = '\n';
+        delimiter[2] = '-';
+        delimiter[3] = '-';
+        System.arraycopy(boundary, 0, delimiter, 4, boundary.length);
+        return delimiter;
+    }
+
+    private static IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Could not parse multipart request: " + reason);
+    }
+
+    /**
+     * Reads a stream through a buffer that is just large enough to recognize a delimiter,
+     * so that content between delimiters can be skipped without holding it in memory.
+     */
+    private static final class Scanner {
+        private final InputStream in;
+        private byte[] buf = new byte[8192];
+        private int pos, limit;
+        private boolean eof;
+
+        Scanner(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return if at least n bytes are available in the buffer.
+         */
+        private boolean fill(int n) throws IOException {
+            if (limit - pos >= n) {
+                return true;
+            }
+            if (n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(n, buf.length * 2));
+            }
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, limit - pos);
+                limit -= pos;
+                pos = 0;
+            }
+            while (limit < n && !eof) {
+                final int read = in.read(buf, limit, buf.length - limit);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    limit += read;
+                }
+            }
+            return limit >= n;
+        }
+
+        boolean skip(String s) throws IOException {
+            if (!fill(s.length())) {
+                return false;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (buf[pos + i] != s.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += s.length();
+            return true;
+        }
+
+        /**
+         * @return the content up to the next occurrence of pattern[offset..].
+         */
+        Section until(byte[] pattern, int offset) {
+            return new Section(Arrays.copyOfRange(pattern, offset, pattern.length));
+        }
+
+        /**
+         * The content up to a delimiter. When it has been read, the delimiter is skipped.
+         */
+        final class Section extends InputStream {
+            private final byte[] delimiter;
+            private boolean done, delimited;
+
+            Section(byte[] delimiter) {
+                this.delimiter = delimiter;
+            }
+
+            boolean isDelimited() {
+                return delimited;
+            }
+
+            void drain() throws IOException {
+                final byte[] ignored = new byte[4096];
+                while (read(ignored, 0, ignored.length) >= 0) {
+                }
+            }
+
+            byte[] readAll() throws IOException {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] chunk = new byte[4096];
+                int read;
+                while ((read = read(chunk, 0, chunk.length)) >= 0) {
+                    out.write(chunk, 0, read);
+                }
+                return out.toByteArray();
+            }
+
+            @Override
+            public int read() throws IOException {
+                final byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (done) {
+                    return -1;
+                }
+                if (len == 0) {
+                    return 0;
+                }
+                if (!fill(delimiter.length)) {
+                    //too short to contain the delimiter, the rest of the stream belongs to the section
+                    if (pos == limit) {
+                        done = true;
+                        return -1;
+                    }
+                    return copy(b, off, Math.min(len, limit - pos));
+                }
+                //a delimiter starting behind these positions may not be complete in the buffer yet
+                final int last = Math.min(limit - delimiter.length, pos + len - 1);
+                for (int i = pos; i <= last; i++) {
+                    if (matches(i)) {
+                        if (i == pos) {
+                            pos += delimiter.length;
+                            done = delimited = true;
+                            return -1;
+                        }
+                        return copy(b, off, i - pos);
+                    }
+                }
+                return copy(b, off, last + 1 - pos);
+            }
+
+            private boolean matches(int at) {
+                for (int j = 0; j < delimiter.length; j++) {
+                    if (buf[at + j] != delimiter[j]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            private int copy(byte[] b, int off, int len) {
+                System.arraycopy(buf, pos, b, off, len);
+                pos += len;
+                return len;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes everything that is read from the underlying stream to an OutputStream.
+ */
+public class TeeInputStream extends FilterInputStream {
+    private final OutputStream copy;
+    private boolean eof;
+
+    public TeeInputStream(InputStream in, OutputStream copy) {
+        super(in);
+        this.copy = copy;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (eof) {
+            return -1;
+        }
+        final int b = super.read();
+        if (b >= 0) {
+            copy.write(b);
+        } else {
+            eof();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (eof) {
+            return -1;
+        }
+        final int read = super.read(b, off, len);
+        if (read > 0) {
+            copy.write(b, off, read);
+        } else if (read < 0) {
+            eof();
+        }
+        return read;
+    }
+
+    private void eof() {
+        eof = true;
+        finished();
+    }
+
+    /**
+     * Called once when the end of the underlying stream has been reached.
+     */
+    protected void finished() {
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        final byte[] buf = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            final int read = read(buf, 0, (int) Math.min(buf.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Read the rest of the underlying stream, so that everything has been copied.
+     */
+    public void drain() throws IOException {
+        final byte[] buf = new byte[8192];
+        while (read(buf, 0, buf.length) >= 0) {
+            //only copy
+        }
+    }
+}
@@ -17,94 +17,194 @@ package guru.nidi.ramltester.util;
 
 import guru.nidi.ramltester.model.Values;
 
-import java.util.regex.Matcher;
-
 /**
  *
  */
 public class UriComponents {
-    private static final class Pattern {
-        private static final String
-                HTTP = "(?i)(http|https):",
-                USERINFO = "([^@/]*)",
-                HOST_IPV4 = "[^\\[/?#:]*",
-                HOST_IPV6 = "\\[[\\p{XDigit}\\:\\.]*[%\\p{Alnum}]*\\]",
-                HOST = "(" + HOST_IPV6 + "|" + HOST_IPV4 + ")",
-                PORT = "(\\d*)",
-                PATH = "([^?#]*)",
-                LAST = "(.*)";
-
-        public static final java.util.regex.Pattern
-                HTTP_URL = java.util.regex.Pattern.compile("^" + HTTP + "(//(" + USERINFO + "@)?" + HOST + "(:" + PORT + ")?" + ")?" + PATH + "(\\?" + LAST + ")?"),
-                QUERY_PARAM = java.util.regex.Pattern.compile("([^&=]+)(=?)([^&]+)?");
-    }
-
+    private final String url;
     private final String scheme;
-    private final String userInfo;
-    private final String host;
+    private final int userInfoStart, userInfoEnd;
+    private final int hostStart, hostEnd;
     private final Integer port;
-    private final String path;
-    private final String queryString;
-    private final Values queryParameters;
+    private final int pathStart, pathEnd;
+    private final int queryStart;
+    private Values queryParameters;
 
-    private UriComponents(String scheme, String userInfo, String host, Integer port, String path, String query) {
+    private UriComponents(String url, String scheme, int userInfoStart, int userInfoEnd, int hostStart, int hostEnd, Integer port, int pathStart, int pathEnd, int queryStart) {
+        this.url = url;
         this.scheme = scheme;
-        this.userInfo = userInfo;
-        this.host = host;
+        this.userInfoStart = userInfoStart;
+        this.userInfoEnd = userInfoEnd;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
         this.port = port;
-        this.path = path;
-        this.queryString = query;
-        this.queryParameters = parseQuery(query);
+        this.pathStart = pathStart;
+        this.pathEnd = pathEnd;
+        this.queryStart = queryStart;
     }
 
+    /**
+     * Accepts the same URLs as the pattern
+     * {@code (?i)(http|https):(//(([^@/]*)@)?(\[[\p{XDigit}:.]*[%\p{Alnum}]*\]|[^\[/?#:]*)(:(\d*))?)?([^?#]*)(\?(.*))?}
+     * with a non empty host.
+     */
     public static UriComponents fromHttpUrl(String httpUrl) {
-        Matcher m = Pattern.HTTP_URL.matcher(httpUrl);
-        if (m.matches()) {
-            String scheme = m.group(1);
-            scheme = (scheme != null) ? scheme.toLowerCase() : null;
-            String userInfo = m.group(4);
-            String host = m.group(5);
-            if (scheme != null && scheme.length() > 0 && (host == null || host.length() == 0)) {
-                throw new IllegalArgumentException("[" + httpUrl + "] is not a valid HTTP URL");
+        final String scheme;
+        final int schemeEnd;
+        if (startsWithIgnoreCase(httpUrl, "http:")) {
+            scheme = "http";
+            schemeEnd = 5;
+        } else if (startsWithIgnoreCase(httpUrl, "https:")) {
+            scheme = "https";
+            schemeEnd = 6;
+        } else {
+            throw invalidUrl(httpUrl);
+        }
+        if (!httpUrl.startsWith("//", schemeEnd)) {
+            throw invalidUrl(httpUrl);
+        }
+        final int authorityStart = schemeEnd + 2;
+        final int userInfoEnd = indexOf(httpUrl, authorityStart, "@/");
+        if (userInfoEnd < httpUrl.length() && httpUrl.charAt(userInfoEnd) == '@') {
+            final UriComponents withUserInfo = fromAuthority(httpUrl, scheme, authorityStart, userInfoEnd, userInfoEnd + 1);
+            if (withUserInfo != null) {
+                return withUserInfo;
+            }
+        }
+        final UriComponents withoutUserInfo = fromAuthority(httpUrl, scheme, -1, -1, authorityStart);
+        if (withoutUserInfo != null) {
+            return withoutUserInfo;
+        }
+        throw invalidUrl(httpUrl);
+    }
+
+    private static UriComponents fromAuthority(String url, String scheme, int userInfoStart, int userInfoEnd, int hostStart) {
+        int hostEnd = ipv6End(url, hostStart);
+        if (hostEnd < 0) {
+            hostEnd = indexOf(url, hostStart, "[/?#:");
+        }
+        Integer port = null;
+        int pathStart = hostEnd;
+        if (hostEnd < url.length() && url.charAt(hostEnd) == ':') {
+            pathStart = hostEnd + 1;
+            while (pathStart < url.length() && isDigit(url.charAt(pathStart))) {
+                pathStart++;
             }
-            Integer port = null;
-            String portString = m.group(7);
-            if (portString != null && portString.length() > 0) {
-                port = Integer.parseInt(portString);
+            if (pathStart > hostEnd + 1) {
+                port = Integer.parseInt(url.substring(hostEnd + 1, pathStart));
             }
-            String path = m.group(8);
-            String query = m.group(10);
+        }
+        final int pathEnd = indexOf(url, pathStart, "?#");
+        if (pathEnd < url.length() && (url.charAt(pathEnd) == '#' || containsLineTerminator(url, pathEnd + 1))) {
+            return null;
+        }
+        if (hostEnd == hostStart) {
+            throw invalidUrl(url);
+        }
+        return new UriComponents(url, scheme, userInfoStart, userInfoEnd, hostStart, hostEnd, port, pathStart, pathEnd, pathEnd < url.length() ? pathEnd + 1 : -1);
+    }
 
-            return new UriComponents(scheme, userInfo, host, port, path, query);
-        } else {
-            throw new IllegalArgumentException("[" + httpUrl + "] is not a valid HTTP URL");
+    private static int ipv6End(String s, int start) {
+        if (start >= s.length() || s.charAt(start) != '[') {
+            return -1;
         }
+        int pos = start + 1;
+        while (pos < s.length() && (isHexDigit(s.charAt(pos)) || s.charAt(pos) == ':' || s.charAt(pos) == '.')) {
+            pos++;
+        }
+        while (pos < s.length() && (isAlnum(s.charAt(pos)) || s.charAt(pos) == '%')) {
+            pos++;
+        }
+        return pos < s.length() && s.charAt(pos) == ']' ? pos + 1 : -1;
+    }
+
+    private static int indexOf(String s, int start, String chars) {
+        for (int i = start; i < s.length(); i++) {
+            if (chars.indexOf(s.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return s.length();
+    }
+
+    private static boolean containsLineTerminator(String s, int start) {
+        for (int i = start; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWithIgnoreCase(String s, String prefix) {
+        if (s.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            final char c = s.charAt(i);
+            if ((c >= 'A' && c <= 'Z' ? (char) (c + 'a' - 'A') : c) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isAlnum(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static IllegalArgumentException invalidUrl(String url) {
+        return new IllegalArgumentException("[" + url + "] is not a valid HTTP URL");
     }
 
     public static Values parseQuery(String query) {
-        Values q = new Values();
+        final Values q = new Values();
         if (query != null) {
-            Matcher m = Pattern.QUERY_PARAM.matcher(query);
-            while (m.find()) {
-                String name = m.group(1);
-                String eq = m.group(2);
-                String value = m.group(3);
-                q.addValue(name, (value != null ? value :
-                        (eq != null && eq.length() > 0 ? "" : null)));
+            int pos = 0;
+            while (pos < query.length()) {
+                final char c = query.charAt(pos);
+                if (c == '&' || c == '=') {
+                    pos++;
+                    continue;
+                }
+                final int nameEnd = indexOf(query, pos, "&=");
+                final String name = query.substring(pos, nameEnd);
+                if (nameEnd < query.length() && query.charAt(nameEnd) == '=') {
+                    final int valueEnd = indexOf(query, nameEnd + 1, "&");
+                    q.addValue(name, query.substring(nameEnd + 1, valueEnd));
+                    pos = valueEnd;
+                } else {
+                    q.addValue(name, null);
+                    pos = nameEnd;
+                }
             }
         }
         return q;
     }
 
     public String getServer() {
-        return (scheme == null ? "" : (scheme + "://")) +
-                (userInfo == null ? "" : (userInfo + "@")) +
-                (host == null ? "" : host) +
-                (port == null ? "" : (":" + port));
+        final StringBuilder s = new StringBuilder(scheme).append("://");
+        if (userInfoStart >= 0) {
+            s.append(url, userInfoStart, userInfoEnd).append('@');
+        }
+        s.append(url, hostStart, hostEnd);
+        if (port != null) {
+            s.append(':').append(port);
+        }
+        return s.toString();
     }
 
     public String getUri() {
-        return getServer() + (path == null ? "" : path);
+        return getServer() + getPath();
     }
 
     public String getScheme() {
@@ -112,11 +212,11 @@ public class UriComponents {
     }
 
     public String getUserInfo() {
-        return userInfo;
+        return userInfoStart < 0 ? null : url.substring(userInfoStart, userInfoEnd);
     }
 
     public String getHost() {
-        return host;
+        return url.substring(hostStart, hostEnd);
     }
 
     public Integer getPort() {
@@ -124,14 +224,17 @@ public class UriComponents {
     }
 
     public String getPath() {
-        return path;
+        return url.substring(pathStart, pathEnd);
     }
 
     public String getQueryString() {
-        return queryString;
+        return queryStart < 0 ? null : url.substring(queryStart);
     }
 
     public Values getQueryParameters() {
+        if (queryParameters == null) {
+            queryParameters = parseQuery(getQueryString());
+        }
         return queryParameters;
     }
 }
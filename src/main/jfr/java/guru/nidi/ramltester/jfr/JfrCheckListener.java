@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.jfr;
+
+import guru.nidi.ramltester.core.CheckListenerAdapter;
+import guru.nidi.ramltester.core.ConditionalCheckListener;
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.core.SchemaValidator;
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.util.MediaType;
+import jdk.jfr.EventType;
+import org.raml.model.Action;
+import org.raml.model.Resource;
+
+/**
+ * Emits JDK Flight Recorder events for checks and schema validations.
+ * The events are disabled by default and must be enabled in the recording settings.
+ * As long as no recording has enabled them, the listener is not called at all.
+ */
+public class JfrCheckListener extends CheckListenerAdapter implements ConditionalCheckListener {
+    private static final EventType CHECK_TYPE = EventType.getEventType(CheckEvent.class);
+    private static final EventType VALIDATION_TYPE = EventType.getEventType(SchemaValidationEvent.class);
+
+    private final ThreadLocal<CheckEvent> checkEvent = new ThreadLocal<>();
+    private final ThreadLocal<SchemaValidationEvent> validationEvent = new ThreadLocal<>();
+
+    @Override
+    public boolean isEnabled() {
+        return CHECK_TYPE.isEnabled() || VALIDATION_TYPE.isEnabled();
+    }
+
+    @Override
+    public void checkStarted(RamlRequest request, RamlResponse response) {
+        final CheckEvent event = new CheckEvent();
+        if (event.isEnabled()) {
+            event.status = response == null ? 0 : response.getStatus();
+            event.begin();
+            checkEvent.set(event);
+        }
+    }
+
+    @Override
+    public void resourceResolved(Resource resource) {
+        final CheckEvent event = checkEvent.get();
+        if (event != null) {
+            event.resource = resource.getUri();
+        }
+    }
+
+    @Override
+    public void actionResolved(Action action) {
+        final CheckEvent event = checkEvent.get();
+        if (event != null) {
+            event.action = action.getType().name();
+        }
+    }
+
+    @Override
+    public void schemaValidationStarted(Action action, MediaType mediaType, SchemaValidator validator, int bodySize) {
+        final SchemaValidationEvent event = new SchemaValidationEvent();
+        if (event.isEnabled()) {
+            event.validator = validator.getClass().getName();
+            event.mediaType = mediaType.toString();
+            event.bodySize = bodySize;
+            event.begin();
+            validationEvent.set(event);
+        }
+    }
+
+    @Override
+    public void schemaValidationFinished(Action action, MediaType mediaType, SchemaValidator validator, long duration) {
+        final SchemaValidationEvent event = validationEvent.get();
+        if (event != null) {
+            validationEvent.remove();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void checkFinished(RamlReport report, Action action, long duration) {
+        final CheckEvent event = checkEvent.get();
+        if (event != null) {
+            checkEvent.remove();
+            event.violations = report.getRequestViolations().size() + report.getResponseViolations().size();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.jfr;
+
+import guru.nidi.ramltester.loader.LoadListener;
+import guru.nidi.ramltester.loader.RamlLoader;
+
+/**
+ * Emits JDK Flight Recorder events for loading RAML definitions.
+ * The events are disabled by default and must be enabled in the recording settings.
+ */
+public class JfrLoadListener implements LoadListener {
+    private final ThreadLocal<RamlLoadEvent> loadEvent = new ThreadLocal<>();
+
+    @Override
+    public void loadStarted(String name, RamlLoader loader) {
+        final RamlLoadEvent event = new RamlLoadEvent();
+        if (event.isEnabled()) {
+            event.name = name;
+            event.loader = loader == null ? null : loader.getClass().getName();
+            event.begin();
+            loadEvent.set(event);
+        }
+    }
+
+    @Override
+    public void loadFinished(String name, RamlLoader loader, long bytes, long duration) {
+        final RamlLoadEvent event = loadEvent.get();
+        if (event != null) {
+            loadEvent.remove();
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
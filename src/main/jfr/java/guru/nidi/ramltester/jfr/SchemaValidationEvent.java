@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.jfr;
+
+import jdk.jfr.*;
+
+/**
+ *
+ */
+@Name("guru.nidi.ramltester.SchemaValidation")
+@Label("RAML Schema Validation")
+@Description("Validation of a body against a schema")
+@Category("RAML Tester")
+@Enabled(false)
+@StackTrace(false)
+class SchemaValidationEvent extends Event {
+    @Label("Validator")
+    String validator;
+
+    @Label("Media Type")
+    String mediaType;
+
+    @Label("Body Size")
+    @DataAmount
+    int bodySize;
+}
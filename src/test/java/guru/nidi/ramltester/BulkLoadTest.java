@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.loader.FileRamlLoader;
+import guru.nidi.ramltester.loader.RamlLoader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class BulkLoadTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void loadAll() throws IOException {
+        write("a.raml", "#%RAML 0.8\n---\ntitle: !include common.txt\n");
+        write("b.raml", "#%RAML 0.8\n---\ntitle: !include common.txt\n");
+        write("c.raml", "#%RAML 0.8\n---\ntitle: c\n");
+        write("common.txt", "common");
+        final CountingRamlLoader counting = new CountingRamlLoader(new FileRamlLoader(folder.getRoot()));
+
+        final RamlLoadResults results = RamlLoaders.using(counting).loadAll(2, Arrays.asList("a.raml", "b.raml", "c.raml"));
+        assertFalse(results.hasFailures());
+        assertEquals(Arrays.asList("a.raml", "b.raml", "c.raml"), Arrays.asList(results.getDefinitions().keySet().toArray()));
+        assertEquals("common", results.get("a.raml").getRaml().getTitle());
+        assertEquals("common", results.get("b.raml").getRaml().getTitle());
+        assertEquals("c", results.get("c.raml").getRaml().getTitle());
+        assertEquals(1, counting.fetches.get("common.txt").get());
+    }
+
+    @Test
+    public void shareSchemaValidators() throws IOException {
+        write("a.raml", "#%RAML 0.8\n---\ntitle: a\n");
+        write("b.raml", "#%RAML 0.8\n---\ntitle: b\n");
+
+        final RamlLoadResults results = RamlLoaders.fromFile(folder.getRoot()).loadAll("a.raml", "b.raml");
+        assertSame(results.get("a.raml").getSchemaValidators(), results.get("b.raml").getSchemaValidators());
+    }
+
+    @Test
+    public void collectFailures() throws IOException {
+        write("a.raml", "#%RAML 0.8\n---\ntitle: a\n");
+        write("b.raml", "#%RAML 0.8\n---\ntitle: !include missing.txt\n");
+
+        final RamlLoadResults results = RamlLoaders.fromFile(folder.getRoot()).loadAll("a.raml", "b.raml", "c.raml");
+        assertTrue(results.hasFailures());
+        assertEquals("a", results.get("a.raml").getRaml().getTitle());
+        assertEquals(1, results.getDefinitions().size());
+        assertEquals(2, results.getFailures().size());
+        assertTrue(results.getFailures().containsKey("b.raml"));
+        assertTrue(results.getFailures().containsKey("c.raml"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getFailed() {
+        RamlLoaders.fromFile(folder.getRoot()).loadAll("missing.raml").get("missing.raml");
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(folder.getRoot(), name).toPath(), content.getBytes("utf-8"));
+    }
+
+    private static class CountingRamlLoader implements RamlLoader {
+        private final RamlLoader delegate;
+        private final ConcurrentMap<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+
+        public CountingRamlLoader(RamlLoader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            fetches.putIfAbsent(name, new AtomicInteger());
+            fetches.get(name).incrementAndGet();
+            return delegate.fetchResource(name);
+        }
+    }
+}
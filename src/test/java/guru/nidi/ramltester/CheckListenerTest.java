@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.CheckListenerAdapter;
+import guru.nidi.ramltester.core.ConditionalCheckListener;
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.core.SchemaValidator;
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.model.ReadOnlyValues;
+import guru.nidi.ramltester.model.Values;
+import guru.nidi.ramltester.util.MediaType;
+import org.junit.Test;
+import org.raml.model.Action;
+import org.raml.model.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ *
+ */
+public class CheckListenerTest extends HighlevelTestBase {
+    private RamlDefinition simple = RamlLoaders.fromClasspath(getClass()).load("simple.raml");
+
+    @Test
+    public void successfulCheck() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        assertNoViolations(test(simple.withListener(listener), get("/schema"), jsonResponse(200, "\"str\"")));
+        assertEquals("[start, resource /schema, action GET, validationStart application/json, validationEnd application/json, end GET 0]", listener.events.toString());
+    }
+
+    @Test
+    public void violations() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        test(simple.withListener(listener), get("/data2"), jsonResponse(200, "\"str\""));
+        assertEquals("[start, violation true Resource '/data2' is not defined, end null 1]", listener.events.toString());
+    }
+
+    @Test
+    public void multipleListeners() throws Exception {
+        final RecordingListener listener1 = new RecordingListener();
+        final RecordingListener listener2 = new RecordingListener();
+        test(simple.withListener(listener1).withListener(listener2), get("/data"), jsonResponse(201, "\"str\""));
+        assertEquals(listener1.events, listener2.events);
+        assertEquals("[start, resource /data, action GET, violation false Response(201) is not defined on action(GET /data), end GET 1]", listener1.events.toString());
+    }
+
+    @Test
+    public void finishedAfterException() {
+        final RecordingListener listener = new RecordingListener();
+        try {
+            simple.withListener(listener).createTester().check(new FailingRequest());
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        assertEquals("[start, end null 0]", listener.events.toString());
+    }
+
+    @Test
+    public void conditionalListener() {
+        final ConditionalListener conditional = new ConditionalListener();
+        final RecordingListener listener = new RecordingListener();
+        final RamlDefinition definition = simple.withListener(listener).withListener(conditional);
+        check(definition);
+        assertEquals("[]", conditional.events.toString());
+        assertEquals("[start, end null 0]", listener.events.toString());
+
+        conditional.enabled = true;
+        check(definition);
+        assertEquals("[start, end null 0]", conditional.events.toString());
+    }
+
+    private void check(RamlDefinition definition) {
+        try {
+            definition.createTester().check(new FailingRequest());
+        } catch (IllegalStateException e) {
+            //expected
+        }
+    }
+
+    private static class ConditionalListener extends RecordingListener implements ConditionalCheckListener {
+        private boolean enabled;
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+
+    private static class FailingRequest implements RamlRequest {
+        @Override
+        public String getRequestUrl(String baseUri) {
+            throw new IllegalStateException("broken request");
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public Values getQueryValues() {
+            return new Values();
+        }
+
+        @Override
+        public Values getFormValues() {
+            return new Values();
+        }
+
+        @Override
+        public ReadOnlyValues getHeaderValues() {
+            return new Values();
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public byte[] getContent() {
+            return null;
+        }
+    }
+
+    private static class RecordingListener extends CheckListenerAdapter {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void checkStarted(RamlRequest request, RamlResponse response) {
+            events.add("start");
+        }
+
+        @Override
+        public void resourceResolved(Resource resource) {
+            events.add("resource " + resource.getUri());
+        }
+
+        @Override
+        public void actionResolved(Action action) {
+            events.add("action " + action.getType());
+        }
+
+        @Override
+        public void violationAdded(String violation, boolean requestViolation) {
+            events.add("violation " + requestViolation + " " + violation);
+        }
+
+        @Override
+        public void schemaValidationStarted(Action action, MediaType mediaType, SchemaValidator validator, int bodySize) {
+            events.add("validationStart " + mediaType);
+        }
+
+        @Override
+        public void schemaValidationFinished(Action action, MediaType mediaType, SchemaValidator validator, long duration) {
+            events.add("validationEnd " + mediaType);
+        }
+
+        @Override
+        public void checkFinished(RamlReport report, Action action, long duration) {
+            final int violations = report.getRequestViolations().size() + report.getResponseViolations().size();
+            events.add("end " + (action == null ? null : action.getType()) + " " + violations);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.RamlChecker;
+import guru.nidi.ramltester.core.RamlReport;
+import guru.nidi.ramltester.spring.SpringMockRamlRequest;
+import guru.nidi.ramltester.spring.SpringMockRamlResponse;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ *
+ */
+public class ConcurrentCheckTest extends HighlevelTestBase {
+    private static final int CHECKS = 400;
+
+    private static RamlDefinition simple = RamlLoaders.fromClasspath(SimpleTest.class).load("simple.raml");
+
+    @Test
+    public void sharedChecker() throws Exception {
+        final RamlChecker checker = simple.assumingBaseUri("http://nidi.guru/raml/v1").createTester();
+        final SimpleReportAggregator aggregator = new SimpleReportAggregator();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<RamlReport>> reports = new ArrayList<>();
+            for (int i = 0; i < CHECKS; i++) {
+                final MockHttpServletRequest request = (i % 2 == 0 ? get("/data") : get("/data2")).buildRequest(new MockServletContext());
+                final MockHttpServletResponse response = jsonResponse(200, "\"hula\"");
+                reports.add(executor.submit(new Callable<RamlReport>() {
+                    @Override
+                    public RamlReport call() throws Exception {
+                        start.await();
+                        return aggregator.addReport(checker.check(new SpringMockRamlRequest(request), new SpringMockRamlResponse(response)));
+                    }
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < CHECKS; i++) {
+                final RamlReport report = reports.get(i).get(10, TimeUnit.SECONDS);
+                if (i % 2 == 0) {
+                    assertNoViolations(report);
+                } else {
+                    assertOneRequestViolationThat(report, equalTo("Resource '/data2' is not defined"));
+                }
+            }
+            assertEquals(CHECKS, aggregator.getReports().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package guru.nidi.ramltester;
 
+import guru.nidi.ramltester.core.RamlReport;
 import guru.nidi.ramltester.core.RamlViolations;
 import guru.nidi.ramltester.httpcomponents.RamlHttpClient;
 import guru.nidi.ramltester.junit.ExpectedUsage;
@@ -23,7 +24,9 @@ import org.apache.catalina.Context;
 import org.apache.catalina.startup.Tomcat;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.util.EntityUtils;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -86,6 +89,54 @@ public class HttpCommonsTest extends ServerTest {
         );
     }
 
+    @Test
+    public void testServletOkWithResponseHandler() throws IOException {
+        final HttpGet get = new HttpGet(url("data"));
+        final String response = client.execute(get, new BasicResponseHandler());
+        assertEquals("\"json string\"", response);
+        assertTrue(client.getLastReport().isEmpty());
+    }
+
+    @Test
+    public void reportBeforeReadingResponse() throws IOException {
+        final HttpGet get = new HttpGet(url("data?param=bu"));
+        final HttpResponse response = client.execute(get);
+        assertEquals(1, client.getLastReport().getResponseViolations().size());
+        assertEquals("illegal json", EntityUtils.toString(response.getEntity()));
+    }
+
+    @Test
+    public void checkUnreadResponseBeforeNextRequest() throws IOException {
+        final SimpleReportAggregator aggregator = new SimpleReportAggregator();
+        final RamlHttpClient aggregating = client.aggregating(aggregator);
+        final HttpResponse response = aggregating.execute(new HttpGet(url("data?param=bu")));
+        assertEquals(HttpStatus.SC_OK, response.getStatusLine().getStatusCode());
+        assertTrue(aggregator.getReports().isEmpty());
+
+        aggregating.execute(new HttpGet(url("data")));
+        assertEquals(1, aggregator.getReports().size());
+        assertEquals(1, aggregator.getReports().get(0).getResponseViolations().size());
+        assertTrue(aggregating.getLastReport().isEmpty());
+        assertEquals(2, aggregator.getReports().size());
+    }
+
+    @Test
+    public void closeWithoutReading() throws IOException {
+        final SimpleReportAggregator aggregator = new SimpleReportAggregator();
+        final CloseableHttpResponse response = (CloseableHttpResponse) client.aggregating(aggregator).execute(new HttpGet(url("data?param=bu")));
+        assertTrue(aggregator.getReports().isEmpty());
+        response.close();
+        assertEquals(1, aggregator.getReports().size());
+        final RamlReport report = aggregator.getReports().get(0);
+        assertEquals(1, report.getRequestViolations().size());
+        assertEquals(1, report.getResponseViolations().size());
+        assertSame(report, client.getLastReport());
+
+        final HttpResponse next = client.execute(new HttpGet(url("data")));
+        assertEquals("\"json string\"", EntityUtils.toString(next.getEntity()));
+        assertTrue(client.getLastReport().isEmpty());
+    }
+
     @Test
     public void notSending() throws IOException {
         final HttpGet get = new HttpGet(url("data"));
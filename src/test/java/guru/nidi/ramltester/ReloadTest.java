@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.RamlChecker;
+import guru.nidi.ramltester.spring.SpringMockRamlRequest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class ReloadTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reloadOnChangedInclude() throws Exception {
+        write("api.raml", "#%RAML 0.8\n---\ntitle: !include title.txt\n/data:\n  get:\n");
+        write("title.txt", "first");
+        try (final ReloadingRamlDefinition api = RamlLoaders.fromFile(folder.getRoot()).loadReloading("api.raml")) {
+            assertEquals(1, api.getVersion());
+            assertEquals("first", api.getRaml().getTitle());
+
+            write("title.txt", "second");
+            awaitVersion(api, 2);
+            assertEquals("second", api.getRaml().getTitle());
+            assertEquals("second", api.assumingBaseUri("http://x").getRaml().getTitle());
+        }
+    }
+
+    @Test
+    public void keepVersionOnError() throws Exception {
+        write("api.raml", "#%RAML 0.8\n---\ntitle: !include title.txt\n");
+        write("title.txt", "first");
+        try (final ReloadingRamlDefinition api = RamlLoaders.fromFile(folder.getRoot()).loadReloading("api.raml")) {
+            write("api.raml", "#%RAML 0.8\n---\ntitle: !include missing.txt\n");
+            Thread.sleep(1000);
+            assertEquals(1, api.getVersion());
+            assertEquals("first", api.getRaml().getTitle());
+
+            write("api.raml", "#%RAML 0.8\n---\ntitle: fixed\n");
+            awaitVersion(api, 2);
+            assertEquals("fixed", api.getRaml().getTitle());
+        }
+    }
+
+    @Test
+    public void testerFollowsReload() throws Exception {
+        write("api.raml", "#%RAML 0.8\n---\ntitle: !include title.txt\nbaseUri: http://nidi.guru\n/data:\n  get:\n");
+        write("title.txt", "first");
+        try (final ReloadingRamlDefinition api = RamlLoaders.fromFile(folder.getRoot()).loadReloading("api.raml")) {
+            final RamlChecker tester = api.createTester();
+            final SimpleReportAggregator aggregator = new SimpleReportAggregator();
+            final SpringMockRamlRequest request = new SpringMockRamlRequest(new MockHttpServletRequest("GET", "/data"));
+            assertEquals("first", aggregator.addReport(tester.check(request)).getRaml().getTitle());
+
+            write("title.txt", "second");
+            awaitVersion(api, 2);
+            assertEquals("second", aggregator.addReport(tester.check(request)).getRaml().getTitle());
+            assertEquals(2, aggregator.getReports().size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyFiles() {
+        RamlLoaders.fromClasspath(getClass()).loadReloading("simple.raml");
+    }
+
+    private void awaitVersion(ReloadingRamlDefinition api, int version) throws InterruptedException {
+        //some WatchService implementations poll only every few seconds
+        for (int i = 0; i < 200 && api.getVersion() < version; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(version, api.getVersion());
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(folder.getRoot(), name).toPath(), content.getBytes("utf-8"));
+    }
+}
@@ -17,6 +17,7 @@ package guru.nidi.ramltester;
 
 import guru.nidi.ramltester.core.RamlViolations;
 import guru.nidi.ramltester.junit.ExpectedUsage;
+import guru.nidi.ramltester.spring.RamlAsyncRestTemplate;
 import guru.nidi.ramltester.spring.RamlRestTemplate;
 import guru.nidi.ramltester.util.ServerTest;
 import org.apache.catalina.Context;
@@ -25,10 +26,12 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Controller;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -38,6 +41,10 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
 import org.springframework.web.servlet.DispatcherServlet;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.*;
@@ -110,4 +117,83 @@ public class RestTemplateTest extends ServerTest {
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testRestTemplateCheckingAsync() {
+        final CollectingExecutor executor = new CollectingExecutor();
+        final String res = restTemplate.checkingAsync(executor).getForObject(url("data?param=bu"), String.class);
+        assertEquals("illegal json", res);
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertEquals(1, restTemplate.getLastReport().getRequestViolations().size());
+        assertEquals(1, restTemplate.getLastReport().getResponseViolations().size());
+    }
+
+    @Test
+    public void testRestTemplateCheckingOnOtherThread() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final RamlRestTemplate asyncTemplate = restTemplate.checkingAsync(executor);
+        final String res = asyncTemplate.getForObject(url("data?param=bu"), String.class);
+        assertEquals("illegal json", res);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, asyncTemplate.getLastReport().getRequestViolations().size());
+        assertEquals(1, asyncTemplate.getLastReport().getResponseViolations().size());
+    }
+
+    @Test
+    public void testAsyncRestTemplateCheckingOnOtherThread() throws ExecutionException, InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        final RamlAsyncRestTemplate asyncTemplate = RamlLoaders
+                .fromClasspath(RestTemplateTest.class)
+                .load("template.raml")
+                .assumingBaseUri("http://nidi.guru/raml/v1")
+                .createAsyncRestTemplate(requestFactory, executor)
+                .aggregating(aggregator);
+
+        final String res = asyncTemplate.getForEntity(url("data"), String.class).get().getBody();
+        assertEquals("\"json string\"", res);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(asyncTemplate.getLastReport().isEmpty());
+    }
+
+    @Test
+    public void testAsyncRestTemplate() throws ExecutionException, InterruptedException {
+        final CollectingExecutor executor = new CollectingExecutor();
+        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        final RamlAsyncRestTemplate asyncTemplate = RamlLoaders
+                .fromClasspath(RestTemplateTest.class)
+                .load("template.raml")
+                .assumingBaseUri("http://nidi.guru/raml/v1")
+                .createAsyncRestTemplate(requestFactory, executor)
+                .aggregating(aggregator);
+
+        final String res = asyncTemplate.getForEntity(url("data"), String.class).get().getBody();
+        assertEquals("\"json string\"", res);
+        assertEquals(1, executor.tasks.size());
+
+        executor.runAll();
+        assertTrue(asyncTemplate.getLastReport().isEmpty());
+    }
+
+    private static class CollectingExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        public void runAll() {
+            for (final Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+}
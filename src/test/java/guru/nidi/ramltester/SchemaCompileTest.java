@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.RamlViolations;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class SchemaCompileTest {
+    @Test
+    public void failOnInvalidSchemas() {
+        try {
+            RamlLoaders.fromClasspath(getClass()).compilingSchemas(true).load("invalidSchema.raml");
+            fail("InvalidSchemaException expected");
+        } catch (InvalidSchemaException e) {
+            final RamlViolations violations = e.getViolations();
+            assertEquals(2, violations.size());
+            final Iterator<String> iter = violations.iterator();
+            assertThat(iter.next(), startsWith("Schema 'json' is invalid\nMessage: Schema invalid: "));
+            assertThat(iter.next(), startsWith("Schema 'xsd' is invalid\nMessage: "));
+        }
+    }
+
+    @Test
+    public void warnOnInvalidSchemas() {
+        final RamlDefinition raml = RamlLoaders.fromClasspath(getClass()).compilingSchemas(false).load("invalidSchema.raml");
+        assertEquals("invalid schema", raml.getRaml().getTitle());
+    }
+
+    @Test
+    public void compileValidSchemas() {
+        RamlLoaders.fromClasspath(getClass()).compilingSchemas(true).load("simple.raml");
+    }
+
+    @Test
+    public void compileSchemasOfAll() {
+        final RamlLoadResults results = RamlLoaders.fromClasspath(getClass()).compilingSchemas(true)
+                .loadAll("simple.raml", "invalidSchema.raml");
+        assertEquals(1, results.getDefinitions().size());
+        assertTrue(results.getFailures().get("invalidSchema.raml") instanceof InvalidSchemaException);
+    }
+}
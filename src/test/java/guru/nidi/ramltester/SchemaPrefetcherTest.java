@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import guru.nidi.ramltester.core.*;
+import guru.nidi.ramltester.loader.FileRamlLoader;
+import guru.nidi.ramltester.loader.RamlLoader;
+import guru.nidi.ramltester.util.MediaType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.raml.model.Raml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ *
+ */
+public class SchemaPrefetcherTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String schema;
+
+    @Before
+    public void setup() throws IOException {
+        write("api.raml", "#%RAML 0.8\n---\ntitle: prefetch\nschemas:\n  - data: !include data.json\n");
+        write("data.json", "{\"type\":\"object\",\"properties\":{\"a\":{\"$ref\":\"a.json\"}}}");
+        write("a.json", "{\"type\":\"object\",\"properties\":{\"b\":{\"$ref\":\"b.json\"}}}");
+        write("b.json", "{\"type\":\"string\"}");
+    }
+
+    @Test
+    public void noFetchesWhileValidating() {
+        final CountingRamlLoader counting = new CountingRamlLoader(new FileRamlLoader(folder.getRoot()));
+        final SchemaValidator validator = load(RamlLoaders.using(counting).prefetchingSchemaReferences());
+        final int fetches = counting.fetches.get();
+
+        final RamlViolations violations = validate(validator, "{\"a\":{\"b\":42}}");
+        assertEquals(1, violations.size());
+        assertEquals(fetches, counting.fetches.get());
+    }
+
+    @Test
+    public void fetchesWhileValidatingWithoutPrefetch() {
+        final CountingRamlLoader counting = new CountingRamlLoader(new FileRamlLoader(folder.getRoot()));
+        final SchemaValidator validator = load(RamlLoaders.using(counting));
+        final int fetches = counting.fetches.get();
+
+        final RamlViolations violations = validate(validator, "{\"a\":{\"b\":42}}");
+        assertEquals(1, violations.size());
+        assertThat(counting.fetches.get(), not(fetches));
+    }
+
+    private SchemaValidator load(RamlLoaders loaders) {
+        final RamlLoader decorated = loaders.decoratedLoader();
+        final Raml raml = loaders.parse("api.raml", decorated);
+        schema = raml.getConsolidatedSchemas().get("data");
+        for (SchemaValidator validator : loaders.schemaValidators(raml, loaders.schemaLoader(decorated)).getValidators()) {
+            if (validator.supports(MediaType.JSON)) {
+                return validator;
+            }
+        }
+        throw new AssertionError("No json schema validator");
+    }
+
+    private RamlViolations validate(SchemaValidator validator, String content) {
+        final RamlViolations violations = new RamlReport(new Raml()).getResponseViolations();
+        validator.validate(content, schema, violations, new Message("schema.mismatch", "", "", "", content));
+        return violations;
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(folder.getRoot(), name).toPath(), content.getBytes("utf-8"));
+    }
+
+    private static class CountingRamlLoader implements RamlLoader {
+        private final RamlLoader delegate;
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        public CountingRamlLoader(RamlLoader delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            fetches.incrementAndGet();
+            return delegate.fetchResource(name);
+        }
+    }
+}
@@ -17,10 +17,14 @@ package guru.nidi.ramltester;
 
 import guru.nidi.ramltester.model.RamlRequest;
 import guru.nidi.ramltester.model.RamlResponse;
+import guru.nidi.ramltester.model.SizeLimitedMessage;
+import guru.nidi.ramltester.model.StreamingMessage;
 import guru.nidi.ramltester.model.Values;
 import guru.nidi.ramltester.servlet.ServletRamlRequest;
 import guru.nidi.ramltester.servlet.ServletRamlResponse;
+import guru.nidi.ramltester.util.CaptureLimits;
 import guru.nidi.ramltester.util.FileValue;
+import guru.nidi.ramltester.util.IoUtils;
 import guru.nidi.ramltester.util.ServerTest;
 import org.apache.catalina.Context;
 import org.apache.catalina.deploy.FilterDef;
@@ -52,10 +56,10 @@ import java.util.Arrays;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.fail;
+import static org.junit.Assert.*;
 
 /**
  *
@@ -63,8 +67,9 @@ import static org.junit.Assert.fail;
 public class ServletRamlMessageTest extends ServerTest {
     private CloseableHttpClient client;
     private static TestFilter testFilter;
-    private static HttpServlet testServlet, gzipTestServlet;
+    private static HttpServlet testServlet, gzipTestServlet, deflateTestServlet;
     private static MessageTester tester;
+    private static CaptureLimits limits;
     private static BlockingQueue<Error> error = new ArrayBlockingQueue<>(1);
     private static Error OK = new Error() {
     };
@@ -74,11 +79,13 @@ public class ServletRamlMessageTest extends ServerTest {
         testFilter = new TestFilter();
         testServlet = new TestServlet();
         gzipTestServlet = new GzipTestServlet();
+        deflateTestServlet = new DeflateTestServlet();
     }
 
     @Before
     public void setup() {
         client = HttpClientBuilder.create().build();
+        limits = CaptureLimits.unlimited();
     }
 
     @Override
@@ -128,6 +135,57 @@ public class ServletRamlMessageTest extends ServerTest {
         });
     }
 
+    @Test
+    public void spilledContent() throws Exception {
+        limits = CaptureLimits.of(10, 1000);
+        final HttpPost post = new HttpPost(url("test/more"));
+        post.setEntity(new ByteArrayEntity(new byte[500]));
+
+        execute(post, new MessageTester() {
+            @Override
+            public void test(HttpServletRequest servletRequest, HttpServletResponse servletResponse, RamlRequest ramlRequest, RamlResponse ramlResponse) throws IOException {
+                assertEquals(500, ramlRequest.getContent().length);
+                assertFalse(((SizeLimitedMessage) ramlRequest).isContentTooLarge());
+                assertEquals(500, ramlResponse.getContent().length);
+                assertFalse(((SizeLimitedMessage) ramlResponse).isContentTooLarge());
+            }
+        });
+    }
+
+    @Test
+    public void streamSpilledRequest() throws Exception {
+        limits = CaptureLimits.of(10, 1000);
+        final HttpPost post = new HttpPost(url("test/more"));
+        post.setEntity(new ByteArrayEntity(new byte[500]));
+
+        execute(post, new MessageTester() {
+            @Override
+            public void test(HttpServletRequest servletRequest, HttpServletResponse servletResponse, RamlRequest ramlRequest, RamlResponse ramlResponse) throws IOException {
+                final StreamingMessage request = (StreamingMessage) ramlRequest;
+                assertEquals(500, request.getTransferredSize());
+                assertEquals(500, IoUtils.readIntoByteArray(request.getContentStream()).length);
+                assertFalse(((SizeLimitedMessage) ramlRequest).isContentTooLarge());
+            }
+        });
+    }
+
+    @Test
+    public void tooLargeContent() throws Exception {
+        limits = CaptureLimits.of(10, 1000).forAction("POST", "/test/{name}", 10, 100);
+        final HttpPost post = new HttpPost(url("test/more"));
+        post.setEntity(new ByteArrayEntity(new byte[500]));
+
+        execute(post, new MessageTester() {
+            @Override
+            public void test(HttpServletRequest servletRequest, HttpServletResponse servletResponse, RamlRequest ramlRequest, RamlResponse ramlResponse) throws IOException {
+                assertEquals(0, ramlRequest.getContent().length);
+                assertTrue(((SizeLimitedMessage) ramlRequest).isContentTooLarge());
+                assertEquals(0, ramlResponse.getContent().length);
+                assertTrue(((SizeLimitedMessage) ramlResponse).isContentTooLarge());
+            }
+        });
+    }
+
     @Test
     public void urlEncodedForm() throws Exception {
         final HttpPost post = new HttpPost(url("test/more"));
@@ -186,6 +244,21 @@ public class ServletRamlMessageTest extends ServerTest {
         });
     }
 
+    @Test
+    public void deflate() throws Exception {
+        final HttpGet get = new HttpGet(url("deflate/path"));
+
+        execute(get, new MessageTester() {
+            @Override
+            public void test(HttpServletRequest servletRequest, HttpServletResponse servletResponse, RamlRequest ramlRequest, RamlResponse ramlResponse) throws IOException {
+                final StreamingMessage streaming = (StreamingMessage) ramlResponse;
+                assertEquals("Deflate works!", new String(IoUtils.readIntoByteArray(streaming.getContentStream())));
+                assertTrue(streaming.getTransferredSize() > 0);
+                assertEquals("Deflate works!", new String(ramlResponse.getContent()));
+            }
+        });
+    }
+
     private String stringOf(byte[] bytes) throws UnsupportedEncodingException {
         return new String(bytes, "iso-8859-1");
     }
@@ -210,8 +283,8 @@ public class ServletRamlMessageTest extends ServerTest {
 
         @Override
         public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
-            final ServletRamlRequest req = new ServletRamlRequest((HttpServletRequest) request);
-            final ServletRamlResponse res = new ServletRamlResponse((HttpServletResponse) response);
+            final ServletRamlRequest req = new ServletRamlRequest((HttpServletRequest) request, limits);
+            final ServletRamlResponse res = new ServletRamlResponse((HttpServletResponse) response, (HttpServletRequest) request, limits);
             chain.doFilter(req, res);
             try {
                 tester.test((HttpServletRequest) request, (HttpServletResponse) response, req, res);
@@ -255,6 +328,18 @@ public class ServletRamlMessageTest extends ServerTest {
         }
     }
 
+    private static class DeflateTestServlet extends HttpServlet {
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse res) throws ServletException, IOException {
+            res.addHeader("Content-Encoding", "deflate");
+            res.setStatus(200);
+            final DeflaterOutputStream deflateOut = new DeflaterOutputStream(res.getOutputStream());
+            deflateOut.write("Deflate works!".getBytes());
+            deflateOut.finish();
+            res.getOutputStream().flush();
+        }
+    }
+
     @Override
     protected void init(Context ctx) {
         final FilterDef filterDef = new FilterDef();
@@ -270,6 +355,8 @@ public class ServletRamlMessageTest extends ServerTest {
         Tomcat.addServlet(ctx, "test", testServlet);
         Tomcat.addServlet(ctx, "gzip", gzipTestServlet);
         ctx.addServletMapping("/test/*", "test");
+        Tomcat.addServlet(ctx, "deflate", deflateTestServlet);
         ctx.addServletMapping("/gzip/*", "gzip");
+        ctx.addServletMapping("/deflate/*", "deflate");
     }
 }
\ No newline at end of file
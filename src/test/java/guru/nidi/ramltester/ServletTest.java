@@ -15,8 +15,11 @@
  */
 package guru.nidi.ramltester;
 
+import guru.nidi.ramltester.core.CheckListenerAdapter;
 import guru.nidi.ramltester.core.RamlReport;
 import guru.nidi.ramltester.core.RamlViolations;
+import guru.nidi.ramltester.core.ReportAggregator;
+import guru.nidi.ramltester.util.CaptureLimits;
 import guru.nidi.ramltester.util.ServerTest;
 import org.apache.catalina.Context;
 import org.apache.catalina.deploy.FilterDef;
@@ -24,12 +27,16 @@ import org.apache.catalina.deploy.FilterMap;
 import org.apache.catalina.startup.Tomcat;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.raml.model.Action;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServlet;
@@ -37,6 +44,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.startsWith;
@@ -48,10 +58,12 @@ import static org.junit.Assert.*;
 public class ServletTest extends ServerTest {
     private CloseableHttpClient client;
     private static TestFilter testFilter;
+    private static UploadFilter uploadFilter;
 
     @BeforeClass
     public static void setupClass() {
         testFilter = new TestFilter();
+        uploadFilter = new UploadFilter();
     }
 
     @Before
@@ -91,9 +103,111 @@ public class ServletTest extends ServerTest {
         );
     }
 
+    @Test
+    public void testAsyncServlet() throws Exception {
+        testFilter.asyncReport = new CountDownLatch(1);
+        final HttpGet get = new HttpGet(url("async/data?param=bu"));
+        final CloseableHttpResponse response = client.execute(get);
+        assertEquals("illegal json", EntityUtils.toString(response.getEntity()));
+        assertNull(testFilter.report);
+        assertTrue(testFilter.asyncReport.await(5, TimeUnit.SECONDS));
+
+        final RamlViolations requestViolations = testFilter.lastReport.getRequestViolations();
+        assertEquals(1, requestViolations.size());
+        assertThat(requestViolations.iterator().next(), equalTo("Query parameter 'param' on action(GET /data) is not defined"));
+
+        final RamlViolations responseViolations = testFilter.lastReport.getResponseViolations();
+        assertEquals(1, responseViolations.size());
+        assertThat(responseViolations.iterator().next(),
+                startsWith("Body does not match schema for action(GET /data) response(200) mime-type('abc/xyz+json')\n" +
+                        "Content: illegal json\n" +
+                        "Message: Schema invalid: ")
+        );
+    }
+
+    @Test
+    public void testAsyncServletAggregating() throws Exception {
+        testFilter.asyncReport = new CountDownLatch(1);
+        final HttpGet get = new HttpGet(url("async/data"));
+        final CloseableHttpResponse response = client.execute(get);
+        assertEquals("\"json string\"", EntityUtils.toString(response.getEntity()));
+        assertNull(testFilter.report);
+        assertTrue(testFilter.asyncReport.await(5, TimeUnit.SECONDS));
+
+        assertSame(testFilter.lastReport, testFilter.aggregatedReport);
+        assertTrue(testFilter.aggregatedReport.isEmpty());
+    }
+
+    @Test
+    public void testEmptyGzipBody() throws IOException {
+        final HttpGet get = new HttpGet(url("gzip/data"));
+        final CloseableHttpResponse response = client.execute(get);
+        EntityUtils.consume(response.getEntity());
+
+        final RamlViolations responseViolations = testFilter.report.getResponseViolations();
+        assertEquals(1, responseViolations.size());
+        assertThat(responseViolations.iterator().next(),
+                equalTo("Schema defined but empty body for media type 'application/json' on action(GET /data) response(200)"));
+    }
+
+    @Test
+    public void testTooLargeUpload() throws IOException {
+        final HttpPost post = new HttpPost(url("upload"));
+        post.setEntity(MultipartEntityBuilder.create()
+                .addBinaryBody("file", new byte[500], ContentType.APPLICATION_OCTET_STREAM, "filename")
+                .addTextBody("name", "value")
+                .build());
+        final CloseableHttpResponse response = client.execute(post);
+        EntityUtils.consume(response.getEntity());
+
+        assertTrue(uploadFilter.report.getRequestViolations().isEmpty());
+        final RamlViolations infos = uploadFilter.report.getInfos();
+        assertEquals(1, infos.size());
+        assertThat(infos.iterator().next(),
+                equalTo("Body of action(POST /upload) mime-type('multipart/form-data') is too large, formParameters check skipped"));
+    }
+
     private static class TestFilter implements Filter {
         private RamlDefinition definition = RamlLoaders
                 .fromClasspath(SimpleTest.class).load("simple.raml")
+                .assumingBaseUri("http://nidi.guru/raml/v1")
+                .withListener(new CheckListenerAdapter() {
+                    @Override
+                    public void checkFinished(RamlReport report, Action action, long duration) {
+                        lastReport = report;
+                    }
+                });
+        private final ReportAggregator aggregator = new ReportAggregator() {
+            @Override
+            public RamlReport addReport(RamlReport report) {
+                aggregatedReport = report;
+                if (asyncReport != null) {
+                    asyncReport.countDown();
+                }
+                return report;
+            }
+        };
+        private RamlReport report;
+        private volatile RamlReport lastReport, aggregatedReport;
+        private volatile CountDownLatch asyncReport;
+
+        @Override
+        public void init(FilterConfig filterConfig) throws ServletException {
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            report = definition.testAgainst(request, response, chain, aggregator);
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static class UploadFilter implements Filter {
+        private RamlDefinition definition = RamlLoaders
+                .fromClasspath(SimpleTest.class).load("upload.raml")
                 .assumingBaseUri("http://nidi.guru/raml/v1");
         private RamlReport report;
 
@@ -103,7 +217,7 @@ public class ServletTest extends ServerTest {
 
         @Override
         public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
-            report = definition.testAgainst(request, response, chain);
+            report = definition.testAgainst(request, response, chain, CaptureLimits.of(10, 100));
         }
 
         @Override
@@ -121,20 +235,82 @@ public class ServletTest extends ServerTest {
         }
     }
 
+    private static class AsyncTestServlet extends HttpServlet {
+        @Override
+        protected void doGet(final HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            final AsyncContext async = req.startAsync();
+            async.start(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        async.getResponse().setContentType("application/json");
+                        final PrintWriter out = async.getResponse().getWriter();
+                        out.write(req.getParameter("param") == null ? "\"json string\"" : "illegal json");
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        async.complete();
+                    }
+                }
+            });
+        }
+    }
+
+    private static class UploadServlet extends HttpServlet {
+        @Override
+        protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            resp.setStatus(200);
+        }
+    }
+
+    private static class EmptyGzipTestServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            resp.setContentType("application/json");
+            resp.addHeader("Content-Encoding", "gzip");
+            new GZIPOutputStream(resp.getOutputStream()).finish();
+        }
+    }
+
     @Override
     protected void init(Context ctx) {
         final FilterDef filterDef = new FilterDef();
         filterDef.setFilter(testFilter);
         filterDef.setFilterName("filter");
+        filterDef.setAsyncSupported("true");
         ctx.addFilterDef(filterDef);
 
         final FilterMap filterMap = new FilterMap();
         filterMap.addServletName("app");
+        filterMap.addServletName("async");
+        filterMap.addServletName("gzip");
         filterMap.addURLPattern("/*");
         filterMap.setFilterName("filter");
+        filterMap.setDispatcher("REQUEST");
+        filterMap.setDispatcher("ASYNC");
         ctx.addFilterMap(filterMap);
 
+        final FilterDef uploadFilterDef = new FilterDef();
+        uploadFilterDef.setFilter(uploadFilter);
+        uploadFilterDef.setFilterName("uploadFilter");
+        ctx.addFilterDef(uploadFilterDef);
+
+        final FilterMap uploadFilterMap = new FilterMap();
+        uploadFilterMap.addServletName("upload");
+        uploadFilterMap.setFilterName("uploadFilter");
+        ctx.addFilterMap(uploadFilterMap);
+
         Tomcat.addServlet(ctx, "app", new TestServlet());
         ctx.addServletMapping("/*", "app");
+
+        Tomcat.addServlet(ctx, "async", new AsyncTestServlet()).setAsyncSupported(true);
+        ctx.addServletMapping("/async/*", "async");
+
+        Tomcat.addServlet(ctx, "gzip", new EmptyGzipTestServlet());
+        ctx.addServletMapping("/gzip/*", "gzip");
+
+        Tomcat.addServlet(ctx, "upload", new UploadServlet());
+        ctx.addServletMapping("/upload", "upload");
     }
 }
\ No newline at end of file
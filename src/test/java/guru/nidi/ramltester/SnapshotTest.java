@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class SnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reuseSnapshot() throws IOException {
+        final File snapshots = folder.newFolder("snapshots");
+        final RamlLoaders loaders = RamlLoaders.fromClasspath(getClass()).withSnapshots(snapshots);
+        final RamlDefinition first = loaders.load("simple.raml");
+        final File[] files = snapshots.listFiles();
+        assertEquals(1, files.length);
+        final long modified = files[0].lastModified();
+
+        final RamlDefinition second = loaders.load("simple.raml");
+        assertEquals(first.getRaml().getTitle(), second.getRaml().getTitle());
+        assertEquals(first.getRaml().getResources().keySet(), second.getRaml().getResources().keySet());
+        assertEquals(modified, snapshots.listFiles()[0].lastModified());
+    }
+
+    @Test
+    public void changedInclude() throws IOException {
+        final File sources = folder.newFolder("sources");
+        write(sources, "api.raml", "#%RAML 0.8\n---\ntitle: !include title.txt\n");
+        write(sources, "title.txt", "first");
+        final RamlLoaders loaders = RamlLoaders.fromFile(sources).withSnapshots(folder.newFolder("snapshots"));
+        assertEquals("first", loaders.load("api.raml").getRaml().getTitle());
+        assertEquals("first", loaders.load("api.raml").getRaml().getTitle());
+
+        write(sources, "title.txt", "second");
+        assertEquals("second", loaders.load("api.raml").getRaml().getTitle());
+    }
+
+    @Test
+    public void separateSnapshotsPerLoader() throws IOException {
+        final File sources = folder.newFolder("sources");
+        write(sources, "simple.raml", "#%RAML 0.8\n---\ntitle: file\n");
+        final File snapshots = folder.newFolder("snapshots");
+        final RamlLoaders classpath = RamlLoaders.fromClasspath(getClass()).withSnapshots(snapshots);
+        final RamlLoaders file = RamlLoaders.fromFile(sources).withSnapshots(snapshots);
+        assertEquals("simple", classpath.load("simple.raml").getRaml().getTitle());
+        assertEquals("file", file.load("simple.raml").getRaml().getTitle());
+        final File[] files = snapshots.listFiles();
+        assertEquals(2, files.length);
+        final long modified0 = files[0].lastModified(), modified1 = files[1].lastModified();
+
+        assertEquals("simple", classpath.load("simple.raml").getRaml().getTitle());
+        assertEquals("file", file.load("simple.raml").getRaml().getTitle());
+        assertEquals(modified0, files[0].lastModified());
+        assertEquals(modified1, files[1].lastModified());
+    }
+
+    @Test
+    public void corruptSnapshot() throws IOException {
+        final File snapshots = folder.newFolder("snapshots");
+        final RamlLoaders loaders = RamlLoaders.fromClasspath(getClass()).withSnapshots(snapshots);
+        loaders.load("simple.raml");
+        final File snapshot = snapshots.listFiles()[0];
+        Files.write(snapshot.toPath(), new byte[]{1, 2, 3});
+
+        assertEquals("simple", loaders.load("simple.raml").getRaml().getTitle());
+        assertTrue(snapshot.length() > 3);
+    }
+
+    @Test
+    public void foreignClassInSnapshot() throws IOException {
+        final File snapshots = folder.newFolder("snapshots");
+        final RamlLoaders loaders = RamlLoaders.fromClasspath(getClass()).withSnapshots(snapshots);
+        loaders.load("simple.raml");
+        final File snapshot = snapshots.listFiles()[0];
+        try (final ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(snapshot)))) {
+            out.writeInt(1);
+            final Map<String, Object> digests = new HashMap<>();
+            digests.put("simple.raml", new Gadget());
+            out.writeObject(digests);
+        }
+
+        assertEquals("simple", loaders.load("simple.raml").getRaml().getTitle());
+        assertFalse(Gadget.deserialized);
+    }
+
+    @Test
+    public void allowedClasses() {
+        assertTrue(RamlSnapshots.isAllowed("org.raml.model.Raml"));
+        assertTrue(RamlSnapshots.isAllowed("java.util.LinkedHashMap"));
+        assertTrue(RamlSnapshots.isAllowed("[Ljava.lang.String;"));
+        assertTrue(RamlSnapshots.isAllowed("[I"));
+        assertFalse(RamlSnapshots.isAllowed("java.io.File"));
+        assertFalse(RamlSnapshots.isAllowed("[Lguru.nidi.ramltester.SnapshotTest$Gadget;"));
+    }
+
+    private static class Gadget implements Serializable {
+        private static boolean deserialized;
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            deserialized = true;
+        }
+    }
+
+    private void write(File dir, String name, String content) throws IOException {
+        Files.write(new File(dir, name).toPath(), content.getBytes("utf-8"));
+    }
+}
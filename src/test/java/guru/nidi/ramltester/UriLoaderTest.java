@@ -15,6 +15,8 @@
  */
 package guru.nidi.ramltester;
 
+import guru.nidi.ramltester.loader.UriRamlLoader;
+import guru.nidi.ramltester.util.IoUtils;
 import guru.nidi.ramltester.util.ServerTest;
 import org.apache.catalina.Context;
 import org.apache.catalina.startup.Tomcat;
@@ -29,6 +31,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,6 +44,8 @@ import static org.junit.Assert.*;
  *
  */
 public class UriLoaderTest extends ServerTest {
+    private static final Set<Integer> remotePorts = Collections.synchronizedSet(new HashSet<Integer>());
+
     @Test
     public void uriRegex() {
         final Pattern ABSOLUTE_URI_PATTERN = Pattern.compile("([^:]+)://(.+)/([^/]+)");
@@ -85,9 +92,20 @@ public class UriLoaderTest extends ServerTest {
         assertNotNull(RamlLoaders.absolutely().load("http://localhost:" + port() + "/deliver/load.raml"));
     }
 
+    @Test
+    public void reuseConnections() throws IOException {
+        remotePorts.clear();
+        final UriRamlLoader loader = new UriRamlLoader(null);
+        for (int i = 0; i < 5; i++) {
+            IoUtils.readIntoByteArray(loader.fetchResource("http://localhost:" + port() + "/deliver/simple.raml"));
+        }
+        assertEquals(1, remotePorts.size());
+    }
+
     private static class FileDeliveringServlet extends HttpServlet {
         @Override
         protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            remotePorts.add(req.getRemotePort());
             final URL in = getClass().getResource(req.getPathInfo().substring(1));
             if (in == null) {
                 resp.sendError(HttpServletResponse.SC_NOT_FOUND);
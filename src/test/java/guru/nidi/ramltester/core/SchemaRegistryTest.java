@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.core;
+
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import guru.nidi.ramltester.loader.ClassPathRamlLoader;
+import org.junit.Test;
+
+import javax.xml.validation.Schema;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class SchemaRegistryTest {
+    private static final String JSON = "{\"type\":\"object\",\"properties\":{\"a\":{\"type\":\"integer\"}}}";
+    private static final String XSD = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"><xs:element name=\"a\" type=\"xs:int\"/></xs:schema>";
+
+    @Test
+    public void internStrings() {
+        final String s = SchemaRegistry.intern(new String("abc"));
+        assertSame(s, SchemaRegistry.intern(new String("abc")));
+        assertNull(SchemaRegistry.intern(null));
+    }
+
+    @Test
+    public void shareJsonSchemas() {
+        final RamlViolations violations = new RamlViolations();
+        //the registry only holds weak references, the validator keeps the compiled schema alive
+        final CompilingSchemaValidator firstValidator = validator(new RestassuredSchemaValidator());
+        firstValidator.compile(new String(JSON), violations, new Message("schema"));
+        final JsonSchema first = SchemaRegistry.getCompiled(RestassuredSchemaValidator.class, JSON, JsonSchema.class);
+        assertNotNull(first);
+        validator(new RestassuredSchemaValidator()).compile(new String(JSON), violations, new Message("schema"));
+        assertSame(first, SchemaRegistry.getCompiled(RestassuredSchemaValidator.class, JSON, JsonSchema.class));
+        assertTrue(violations.isEmpty());
+        assertNotNull(firstValidator);
+    }
+
+    @Test
+    public void shareXmlSchemas() {
+        final RamlViolations violations = new RamlViolations();
+        final CompilingSchemaValidator validator = validator(new JavaXmlSchemaValidator());
+        validator.compile(XSD, violations, new Message("schema"));
+        assertNotNull(SchemaRegistry.getCompiled(JavaXmlSchemaValidator.class, XSD, Schema.class));
+        assertTrue(violations.isEmpty());
+        assertNotNull(validator);
+    }
+
+    @Test
+    public void dontShareSchemasWithReferences() {
+        final String schema = "{\"$ref\":\"string.json\"}";
+        final RamlViolations violations = new RamlViolations();
+        validator(new RestassuredSchemaValidator()).compile(schema, violations, new Message("schema"));
+        assertNull(SchemaRegistry.getCompiled(RestassuredSchemaValidator.class, schema, JsonSchema.class));
+    }
+
+    @Test
+    public void dontShareCustomConfigurations() {
+        final String schema = "{\"type\":\"boolean\"}";
+        final RamlViolations violations = new RamlViolations();
+        new RestassuredSchemaValidator().using(JsonSchemaFactory.byDefault())
+                .compile(schema, violations, new Message("schema"));
+        assertNull(SchemaRegistry.getCompiled(RestassuredSchemaValidator.class, schema, JsonSchema.class));
+    }
+
+    private CompilingSchemaValidator validator(SchemaValidator validator) {
+        return (CompilingSchemaValidator) validator.withResourceLoader(new ClassPathRamlLoader("guru/nidi/ramltester"));
+    }
+}
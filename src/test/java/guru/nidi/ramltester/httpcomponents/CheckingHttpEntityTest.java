@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.httpcomponents;
+
+import guru.nidi.ramltester.util.BodyCapture;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class CheckingHttpEntityTest {
+    private final List<String> checked = new ArrayList<>();
+
+    @Test
+    public void checkAtEnd() throws IOException {
+        final CheckingHttpEntity entity = entity("content", BodyCapture.unlimited());
+        final InputStream in = entity.getContent();
+        assertEquals('c', in.read());
+        assertEquals(6, in.read(new byte[10]));
+        assertTrue(checked.isEmpty());
+        assertEquals(-1, in.read());
+        assertEquals(1, checked.size());
+        assertEquals("content", checked.get(0));
+        in.close();
+        assertEquals(1, checked.size());
+    }
+
+    @Test
+    public void checkOnClose() throws IOException {
+        final CheckingHttpEntity entity = entity("content", BodyCapture.unlimited());
+        final InputStream in = entity.getContent();
+        assertEquals('c', in.read());
+        in.close();
+        assertEquals(1, checked.size());
+        assertEquals("content", checked.get(0));
+    }
+
+    @Test
+    public void finishUnread() throws IOException {
+        final CheckingHttpEntity entity = entity("content", BodyCapture.unlimited());
+        entity.finishUnread();
+        assertEquals(1, checked.size());
+        assertEquals("content", checked.get(0));
+        assertEquals("content", EntityUtils.toString(entity));
+        assertEquals(1, checked.size());
+    }
+
+    @Test
+    public void finishUnreadTooLarge() throws IOException {
+        final CheckingHttpEntity entity = entity("content", new BodyCapture(5, 5));
+        entity.finishUnread();
+        assertEquals(1, checked.size());
+        assertEquals("", checked.get(0));
+        try {
+            entity.getContent();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void finishUnreadAfterRead() throws IOException {
+        final CheckingHttpEntity entity = entity("content", BodyCapture.unlimited());
+        final InputStream in = entity.getContent();
+        assertEquals('c', in.read());
+        entity.finishUnread();
+        assertTrue(checked.isEmpty());
+        entity.finish();
+        assertEquals("content", checked.get(0));
+    }
+
+    @Test
+    public void finishUnreadClosed() throws IOException {
+        final InputStream closed = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("closed");
+            }
+        };
+        final CheckingHttpEntity entity = entity(new InputStreamEntity(closed), BodyCapture.unlimited());
+        entity.finishUnread();
+        assertEquals(1, checked.size());
+        assertEquals("", checked.get(0));
+        try {
+            entity.getContent();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+    }
+
+    private CheckingHttpEntity entity(String content, BodyCapture capture) {
+        return entity(new InputStreamEntity(new ByteArrayInputStream(content.getBytes())), capture);
+    }
+
+    private CheckingHttpEntity entity(HttpEntity entity, BodyCapture capture) {
+        return new CheckingHttpEntity(entity, capture, new CheckingHttpEntity.Check() {
+            @Override
+            public void execute(BodyCapture content) {
+                try {
+                    checked.add(new String(content.toByteArray()));
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+    }
+}
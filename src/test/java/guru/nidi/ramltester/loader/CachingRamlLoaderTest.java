@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class CachingRamlLoaderTest {
+    @Test
+    public void cacheContent() throws IOException {
+        final CountingRamlLoader delegate = new CountingRamlLoader().add("a", "abc");
+        final CachingRamlLoader caching = new CachingRamlLoader(delegate, 100);
+
+        assertEquals('a', caching.fetchResource("a").read());
+        assertEquals('a', caching.fetchResource("a").read());
+        assertEquals(1, delegate.requests);
+        assertTrue(caching.isCached("a"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        final CountingRamlLoader delegate = new CountingRamlLoader().add("a", "aaa").add("b", "bbb").add("c", "ccc");
+        final CachingRamlLoader caching = new CachingRamlLoader(delegate, 7);
+
+        caching.fetchResource("a");
+        caching.fetchResource("b");
+        caching.fetchResource("a");
+        caching.fetchResource("c");
+        assertTrue(caching.isCached("a"));
+        assertFalse(caching.isCached("b"));
+        assertTrue(caching.isCached("c"));
+    }
+
+    @Test
+    public void dontCacheTooBigContent() {
+        final CountingRamlLoader delegate = new CountingRamlLoader().add("a", "aaa");
+        final CachingRamlLoader caching = new CachingRamlLoader(delegate, 2);
+
+        caching.fetchResource("a");
+        caching.fetchResource("a");
+        assertFalse(caching.isCached("a"));
+        assertEquals(2, delegate.requests);
+    }
+
+    @Test
+    public void dontCacheMissing() throws IOException {
+        final CountingRamlLoader delegate = new CountingRamlLoader();
+        final CachingRamlLoader caching = new CachingRamlLoader(delegate, 100);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                caching.fetchResource("a");
+                fail();
+            } catch (RamlLoader.ResourceNotFoundException e) {
+                //expected
+            }
+        }
+        assertEquals(2, delegate.requests);
+        delegate.add("a", "abc");
+        assertEquals('a', caching.fetchResource("a").read());
+    }
+
+    private static class CountingRamlLoader implements RamlLoader {
+        private final Map<String, String> contents = new HashMap<>();
+        private int requests;
+
+        public CountingRamlLoader add(String name, String content) {
+            contents.put(name, content);
+            return this;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            requests++;
+            final String content = contents.get(name);
+            if (content == null) {
+                throw new ResourceNotFoundException(name);
+            }
+            return new ByteArrayInputStream(content.getBytes());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.util.IoUtils;
+import guru.nidi.ramltester.util.ServerTest;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class CachingUrlFetcherTest extends ServerTest {
+    private static int requests, notModified, status;
+    private static String content;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void reset() {
+        requests = notModified = 0;
+        status = HttpServletResponse.SC_OK;
+        content = "v1";
+    }
+
+    @Test
+    public void revalidate() throws IOException {
+        final UrlRamlLoader loader = loader(new CachingUrlFetcher(folder.getRoot()));
+        assertEquals("v1", fetch(loader, "a.raml"));
+        assertEquals("v1", fetch(loader, "a.raml"));
+        assertEquals(2, requests);
+        assertEquals(1, notModified);
+
+        content = "v2";
+        assertEquals("v2", fetch(loader, "a.raml"));
+        assertEquals("v2", fetch(loader, "a.raml"));
+        assertEquals(4, requests);
+        assertEquals(2, notModified);
+    }
+
+    @Test
+    public void fresh() throws IOException {
+        final UrlRamlLoader loader = loader(new CachingUrlFetcher(folder.getRoot()).freshFor(60000));
+        assertEquals("v1", fetch(loader, "a.raml"));
+        content = "v2";
+        assertEquals("v1", fetch(loader, "a.raml"));
+        assertEquals(1, requests);
+    }
+
+    @Test
+    public void offline() throws IOException {
+        final CachingUrlFetcher fetcher = new CachingUrlFetcher(folder.getRoot());
+        assertEquals("v1", fetch(loader(fetcher), "a.raml"));
+        content = "v2";
+        assertEquals("v1", fetch(loader(fetcher.offline()), "a.raml"));
+        assertEquals(1, requests);
+    }
+
+    @Test(expected = RamlLoader.ResourceNotFoundException.class)
+    public void offlineNotCached() throws IOException {
+        fetch(loader(new CachingUrlFetcher(folder.getRoot()).offline()), "a.raml");
+    }
+
+    @Test
+    public void staleOnServerError() throws IOException {
+        final UrlRamlLoader loader = loader(new CachingUrlFetcher(folder.getRoot()));
+        assertEquals("v1", fetch(loader, "a.raml"));
+        status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        assertEquals("v1", fetch(loader, "a.raml"));
+    }
+
+    @Test(expected = RamlLoader.ResourceNotFoundException.class)
+    public void staleTooOld() throws IOException, InterruptedException {
+        final CachingUrlFetcher fetcher = new CachingUrlFetcher(folder.getRoot()).acceptingStaleFor(10);
+        assertEquals("v1", fetch(loader(fetcher), "a.raml"));
+        Thread.sleep(20);
+        status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        fetch(loader(fetcher), "a.raml");
+    }
+
+    @Test(expected = RamlLoader.ResourceNotFoundException.class)
+    public void noStaleOnClientError() throws IOException {
+        final UrlRamlLoader loader = loader(new CachingUrlFetcher(folder.getRoot()));
+        assertEquals("v1", fetch(loader, "a.raml"));
+        status = HttpServletResponse.SC_NOT_FOUND;
+        fetch(loader, "a.raml");
+    }
+
+    private UrlRamlLoader loader(CachingUrlFetcher fetcher) {
+        return new UrlRamlLoader(url("deliver"), fetcher);
+    }
+
+    private String fetch(UrlRamlLoader loader, String name) throws IOException {
+        return new String(IoUtils.readIntoByteArray(loader.fetchResource(name)), "utf-8");
+    }
+
+    private static class VersionedServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            requests++;
+            if (status != HttpServletResponse.SC_OK) {
+                resp.sendError(status);
+                return;
+            }
+            final String etag = "\"" + content + "\"";
+            resp.setHeader("ETag", etag);
+            if (etag.equals(req.getHeader("If-None-Match"))) {
+                notModified++;
+                resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            resp.getWriter().write(content);
+        }
+    }
+
+    @Override
+    protected int port() {
+        return 8086;
+    }
+
+    @Override
+    protected void init(Context ctx) {
+        Tomcat.addServlet(ctx, "app", new VersionedServlet());
+        ctx.addServletMapping("/deliver/*", "app");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class CompositeRamlLoaderTest {
+    @Test
+    public void rememberServingLoader() throws IOException {
+        final MapRamlLoader first = new MapRamlLoader("a");
+        final ProbingMapRamlLoader second = new ProbingMapRamlLoader("b");
+        final MapRamlLoader third = new MapRamlLoader("c");
+        final CompositeRamlLoader composite = new CompositeRamlLoader(first, second, third);
+
+        assertEquals('c', composite.fetchResource("c").read());
+        assertEquals(1, first.requests);
+        assertEquals(1, second.requests);
+        assertEquals(1, third.requests);
+
+        assertEquals('c', composite.fetchResource("c").read());
+        assertEquals(1, first.requests);
+        assertEquals(1, second.requests);
+        assertEquals(2, third.requests);
+    }
+
+    @Test
+    public void rememberMissing() {
+        final MapRamlLoader first = new MapRamlLoader("a");
+        final ProbingMapRamlLoader second = new ProbingMapRamlLoader("b");
+        final CompositeRamlLoader composite = new CompositeRamlLoader(first, second);
+
+        assertNull(composite.probeResource("x"));
+        assertNull(composite.probeResource("x"));
+        assertEquals(1, first.requests);
+        assertEquals(1, second.requests);
+        assertEquals(1, first.exceptions);
+    }
+
+    @Test
+    public void doNotRememberUnavailable() {
+        final UnavailableRamlLoader first = new UnavailableRamlLoader();
+        final ProbingMapRamlLoader second = new ProbingMapRamlLoader("b");
+        final CompositeRamlLoader composite = new CompositeRamlLoader(first, second);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                composite.probeResource("x");
+                fail("Expected ResourceUnavailableException");
+            } catch (RamlLoader.ResourceUnavailableException e) {
+                //expected
+            }
+        }
+        assertEquals(2, first.requests);
+        assertEquals(2, second.requests);
+    }
+
+    @Test
+    public void unavailableInOtherLoader() throws IOException {
+        final UnavailableRamlLoader first = new UnavailableRamlLoader();
+        final ProbingMapRamlLoader second = new ProbingMapRamlLoader("b");
+        final CompositeRamlLoader composite = new CompositeRamlLoader(first, second);
+        assertEquals('b', composite.fetchResource("b").read());
+    }
+
+    @Test(expected = RamlLoader.ResourceNotFoundException.class)
+    public void fetchMissing() {
+        new CompositeRamlLoader(new ProbingMapRamlLoader("a")).fetchResource("b");
+    }
+
+    @Test
+    public void indexedLoaderLosesResource() throws IOException {
+        final ProbingMapRamlLoader first = new ProbingMapRamlLoader("a");
+        final ProbingMapRamlLoader second = new ProbingMapRamlLoader("a");
+        final CompositeRamlLoader composite = new CompositeRamlLoader(first, second);
+
+        composite.fetchResource("a");
+        first.contents.remove("a");
+        assertEquals('a', composite.fetchResource("a").read());
+        assertEquals(2, first.requests);
+        assertEquals(1, second.requests);
+    }
+
+    @Test
+    public void nested() throws IOException {
+        final MapRamlLoader first = new MapRamlLoader("a");
+        final CompositeRamlLoader composite = new CompositeRamlLoader(new CompositeRamlLoader(null, first), new ProbingMapRamlLoader("b"));
+        assertEquals('b', composite.fetchResource("b").read());
+        assertEquals('b', composite.fetchResource("b").read());
+        assertEquals(1, first.exceptions);
+    }
+
+    private static class MapRamlLoader implements RamlLoader {
+        protected final Map<String, String> contents = new HashMap<>();
+        protected int requests, exceptions;
+
+        public MapRamlLoader(String... names) {
+            for (String name : names) {
+                contents.put(name, name);
+            }
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            requests++;
+            if (!contents.containsKey(name)) {
+                exceptions++;
+                throw new ResourceNotFoundException(name);
+            }
+            return new ByteArrayInputStream(contents.get(name).getBytes());
+        }
+    }
+
+    private static class UnavailableRamlLoader implements RamlLoader {
+        private int requests;
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            requests++;
+            throw new ResourceUnavailableException(name, new IOException("Connection refused"));
+        }
+    }
+
+    private static class ProbingMapRamlLoader extends MapRamlLoader implements ProbingRamlLoader {
+        public ProbingMapRamlLoader(String... names) {
+            super(names);
+        }
+
+        @Override
+        public InputStream probeResource(String name) {
+            requests++;
+            return contents.containsKey(name) ? new ByteArrayInputStream(contents.get(name).getBytes()) : null;
+        }
+    }
+}
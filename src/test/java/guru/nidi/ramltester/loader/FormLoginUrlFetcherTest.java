@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.util.IoUtils;
+import guru.nidi.ramltester.util.ServerTest;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class FormLoginUrlFetcherTest extends ServerTest {
+    private static final AtomicInteger logins = new AtomicInteger();
+    private static final Set<String> sessions = new CopyOnWriteArraySet<>();
+    private static volatile boolean redirectToLogin;
+    private static volatile boolean loginUnavailable;
+
+    @Before
+    public void reset() {
+        logins.set(0);
+        sessions.clear();
+        redirectToLogin = false;
+        loginUnavailable = false;
+    }
+
+    @Test
+    public void loginOnce() throws IOException {
+        final UrlRamlLoader loader = loader();
+        assertEquals("a.raml", fetch(loader, "a.raml"));
+        assertEquals("b.raml", fetch(loader, "b.raml"));
+        assertEquals("c.raml", fetch(loader, "c.raml"));
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void loginAgainOnUnauthorized() throws IOException {
+        final UrlRamlLoader loader = loader();
+        assertEquals("a.raml", fetch(loader, "a.raml"));
+        sessions.clear();
+        assertEquals("b.raml", fetch(loader, "b.raml"));
+        assertEquals("c.raml", fetch(loader, "c.raml"));
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void loginAgainOnRedirect() throws IOException {
+        redirectToLogin = true;
+        final UrlRamlLoader loader = loader();
+        assertEquals("a.raml", fetch(loader, "a.raml"));
+        sessions.clear();
+        assertEquals("b.raml", fetch(loader, "b.raml"));
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void followOtherRedirects() throws IOException {
+        redirectToLogin = true;
+        final UrlRamlLoader loader = loader();
+        assertEquals("a.raml", fetch(loader, "moved/a.raml"));
+        assertEquals(1, logins.get());
+    }
+
+    @Test(expected = RamlLoader.ResourceUnavailableException.class)
+    public void wrongPassword() {
+        new UrlRamlLoader(url("app"), new FormLoginUrlFetcher("files", "login", "user", "wrong", "name", "pass")).fetchResource("a.raml");
+    }
+
+    @Test(expected = RamlLoader.ResourceUnavailableException.class)
+    public void loginUnavailable() {
+        loginUnavailable = true;
+        loader().fetchResource("a.raml");
+    }
+
+    @Test
+    public void missingFile() {
+        try {
+            loader().fetchResource("missing.raml");
+            fail("Expected ResourceNotFoundException");
+        } catch (RamlLoader.ResourceUnavailableException e) {
+            fail("Missing file reported as unavailable");
+        } catch (RamlLoader.ResourceNotFoundException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void concurrentFetchesShareLogin() throws Exception {
+        final UrlRamlLoader loader = loader();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                final String name = i + ".raml";
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return fetch(loader, name);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i + ".raml", results.get(i).get());
+            }
+            assertEquals(1, logins.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private UrlRamlLoader loader() {
+        return new UrlRamlLoader(url("app"), new FormLoginUrlFetcher("files", "login", "user", "secret", "name", "pass"));
+    }
+
+    private String fetch(UrlRamlLoader loader, String name) throws IOException {
+        return new String(IoUtils.readIntoByteArray(loader.fetchResource(name)), "utf-8");
+    }
+
+    private static class LoginServlet extends HttpServlet {
+        @Override
+        protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            if (loginUnavailable) {
+                resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            if (!"user".equals(req.getParameter("name")) || !"secret".equals(req.getParameter("pass"))) {
+                resp.setStatus(HttpServletResponse.SC_OK);
+                return;
+            }
+            final String session = "s" + logins.incrementAndGet();
+            sessions.add(session);
+            resp.addCookie(new Cookie("session", session));
+            resp.sendRedirect("/app/files");
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            resp.getWriter().write("login form");
+        }
+    }
+
+    private static class FileServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            if (!hasSession(req)) {
+                if (redirectToLogin) {
+                    resp.sendRedirect("/app/login");
+                } else {
+                    resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                }
+                return;
+            }
+            if (req.getPathInfo().equals("/missing.raml")) {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (req.getPathInfo().startsWith("/moved/")) {
+                resp.sendRedirect("/app/files/" + req.getPathInfo().substring(7));
+                return;
+            }
+            resp.getWriter().write(req.getPathInfo().substring(1));
+        }
+
+        private boolean hasSession(HttpServletRequest req) {
+            if (req.getCookies() != null) {
+                for (Cookie cookie : req.getCookies()) {
+                    if ("session".equals(cookie.getName()) && sessions.contains(cookie.getValue())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    protected int port() {
+        return 8087;
+    }
+
+    @Override
+    protected void init(Context ctx) {
+        Tomcat.addServlet(ctx, "login", new LoginServlet());
+        ctx.addServletMapping("/app/login", "login");
+        Tomcat.addServlet(ctx, "files", new FileServlet());
+        ctx.addServletMapping("/app/files/*", "files");
+    }
+}
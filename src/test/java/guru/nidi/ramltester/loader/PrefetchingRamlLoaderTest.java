@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.util.IoUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class PrefetchingRamlLoaderTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void prefetchIncludesAndRefs() throws IOException, InterruptedException {
+        final SlowRamlLoader slow = new SlowRamlLoader();
+        slow.put("api.raml", "title: api\nschemas:\n  - a: !include a.json\n  - b: !include sub/b.json\ndoc: !include c.md");
+        slow.put("a.json", "{\"$ref\": \"d.json#/x\"}");
+        slow.put("sub/b.json", "{\"$ref\":\"e.json\"}");
+        slow.put("c.md", "hula");
+        slow.put("d.json", "{}");
+        slow.put("sub/e.json", "{}");
+        slow.overlapping("a.json", "sub/b.json", "c.md");
+        final PrefetchingRamlLoader loader = new PrefetchingRamlLoader(slow, executor);
+
+        assertEquals("title: api", read(loader, "api.raml").substring(0, 10));
+        assertEquals("hula", read(loader, "c.md"));
+        assertEquals("{}", read(loader, "sub/e.json"));
+        assertEquals("{}", read(loader, "d.json"));
+        assertEquals("{\"$ref\":\"e.json\"}", read(loader, "sub/b.json"));
+        assertEquals("{\"$ref\": \"d.json#/x\"}", read(loader, "a.json"));
+
+        assertThat(slow.maxConcurrent.get(), is(3));
+        for (Map.Entry<String, AtomicInteger> entry : slow.fetches.entrySet()) {
+            assertThat(entry.getKey(), entry.getValue().get(), is(1));
+        }
+    }
+
+    @Test
+    public void cacheResources() throws IOException {
+        final SlowRamlLoader slow = new SlowRamlLoader();
+        slow.put("api.raml", "title: api");
+        final PrefetchingRamlLoader loader = new PrefetchingRamlLoader(slow, executor);
+        read(loader, "api.raml");
+        read(loader, "api.raml");
+        assertEquals(1, slow.fetches.get("api.raml").get());
+    }
+
+    @Test
+    public void retryFailedFetch() throws IOException {
+        final SlowRamlLoader slow = new SlowRamlLoader();
+        final PrefetchingRamlLoader loader = new PrefetchingRamlLoader(slow, executor);
+        try {
+            read(loader, "api.raml");
+            fail("Expected ResourceNotFoundException");
+        } catch (RamlLoader.ResourceNotFoundException e) {
+            //expected
+        }
+        slow.put("api.raml", "title: api");
+        assertEquals("title: api", read(loader, "api.raml"));
+    }
+
+    @Test
+    public void releaseOnClose() throws IOException {
+        final SlowRamlLoader slow = new SlowRamlLoader();
+        slow.put("api.raml", "title: api");
+        final PrefetchingRamlLoader loader = new PrefetchingRamlLoader(slow, executor);
+        read(loader, "api.raml");
+        loader.close();
+        assertEquals("title: api", read(loader, "api.raml"));
+        assertEquals(2, slow.fetches.get("api.raml").get());
+    }
+
+    @Test(expected = RamlLoader.ResourceNotFoundException.class)
+    public void notFound() throws IOException {
+        final SlowRamlLoader slow = new SlowRamlLoader();
+        slow.put("api.raml", "title: !include missing.md");
+        final PrefetchingRamlLoader loader = new PrefetchingRamlLoader(slow, executor);
+        read(loader, "api.raml");
+        read(loader, "missing.md");
+    }
+
+    private String read(RamlLoader loader, String name) throws IOException {
+        return new String(IoUtils.readIntoByteArray(loader.fetchResource(name)), "utf-8");
+    }
+
+    private static class SlowRamlLoader implements RamlLoader {
+        private final Map<String, String> contents = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private volatile Set<String> overlapping = Collections.emptySet();
+        private volatile CountDownLatch overlap;
+
+        /**
+         * The given resources only finish when they are all fetched at the same time.
+         */
+        public void overlapping(String... names) {
+            overlap = new CountDownLatch(names.length);
+            overlapping = new HashSet<>(Arrays.asList(names));
+        }
+
+        public void put(String name, String content) {
+            contents.put(name, content);
+            fetches.put(name, new AtomicInteger());
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            final int current = concurrent.incrementAndGet();
+            try {
+                synchronized (maxConcurrent) {
+                    maxConcurrent.set(Math.max(maxConcurrent.get(), current));
+                }
+                if (overlapping.contains(name)) {
+                    overlap.countDown();
+                    overlap.await(5, TimeUnit.SECONDS);
+                }
+                final String content = contents.get(name);
+                if (content == null) {
+                    throw new ResourceNotFoundException(name);
+                }
+                fetches.get(name).incrementAndGet();
+                return new ByteArrayInputStream(content.getBytes("utf-8"));
+            } catch (InterruptedException | IOException e) {
+                throw new ResourceNotFoundException(name, e);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+}
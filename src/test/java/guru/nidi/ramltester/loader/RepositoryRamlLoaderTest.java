@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import guru.nidi.ramltester.RamlLoaders;
+import guru.nidi.ramltester.apidesigner.ApiDesignerFilesResponse;
+import guru.nidi.ramltester.util.IoUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class RepositoryRamlLoaderTest {
+    @Test
+    public void findByNameAndPath() throws IOException {
+        final RepositoryRamlLoader loader = new RepositoryRamlLoader(new JsonRamlLoader(
+                "{\"1\":{\"name\":\"a.raml\",\"path\":\"/a.raml\",\"contents\":\"hello%20a\"}," +
+                        "\"2\":{\"name\":\"b.raml\",\"path\":\"/dir/b.raml\",\"contents\":\"hello%20b\"}}"),
+                "files", ApiDesignerFilesResponse.class);
+        assertEquals("hello a", read(loader, "a.raml"));
+        assertEquals("hello a", read(loader, "/a.raml"));
+        assertEquals("hello b", read(loader, "/dir/b.raml"));
+        assertEquals("hello b", read(loader, "b.raml"));
+    }
+
+    @Test(expected = RamlLoader.ResourceNotFoundException.class)
+    public void notFound() {
+        new RepositoryRamlLoader(new JsonRamlLoader("{}"), "files", ApiDesignerFilesResponse.class).fetchResource("a.raml");
+    }
+
+    @Test
+    public void loadOnceAndConvertOnlyUsedEntries() throws IOException {
+        final CountingEntry a = new CountingEntry("a.raml");
+        final CountingEntry b = new CountingEntry("b.raml");
+        final int[] loads = new int[1];
+        final RepositoryRamlLoader loader = new RepositoryRamlLoader(null, "files", null) {
+            @Override
+            protected RepositoryResponse load() {
+                loads[0]++;
+                return new RepositoryResponse() {
+                    @Override
+                    public Iterable<? extends RepositoryEntry> getFiles() {
+                        return Arrays.asList(a, b);
+                    }
+                };
+            }
+        };
+        assertEquals("a.raml", read(loader, "a.raml"));
+        assertEquals("a.raml", read(loader, "a.raml"));
+        assertEquals(1, loads[0]);
+        assertEquals(1, a.reads);
+        assertEquals(0, b.reads);
+    }
+
+    @Test
+    public void closeResponse() throws IOException {
+        final int[] loads = new int[1], closes = new int[1];
+        final RepositoryRamlLoader loader = new RepositoryRamlLoader(null, "files", null) {
+            @Override
+            protected RepositoryResponse load() {
+                loads[0]++;
+                return new ClosingResponse(closes, new CountingEntry("a.raml"));
+            }
+        };
+        assertEquals("a.raml", read(loader, "a.raml"));
+        loader.close();
+        assertEquals(1, closes[0]);
+        assertEquals("a.raml", read(loader, "a.raml"));
+        assertEquals(2, loads[0]);
+    }
+
+    @Test
+    public void releaseAfterLoad() {
+        final int[] closes = new int[1];
+        final RepositoryRamlLoader loader = new RepositoryRamlLoader(null, "files", null) {
+            @Override
+            protected RepositoryResponse load() {
+                return new ClosingResponse(closes, new RamlEntry("a.raml"));
+            }
+        };
+        RamlLoaders.using(loader).load("a.raml");
+        assertEquals(1, closes[0]);
+    }
+
+    private String read(RamlLoader loader, String name) throws IOException {
+        return new String(IoUtils.readIntoByteArray(loader.fetchResource(name)), "utf-8");
+    }
+
+    private static class JsonRamlLoader implements RamlLoader {
+        private final String json;
+
+        public JsonRamlLoader(String json) {
+            this.json = json;
+        }
+
+        @Override
+        public InputStream fetchResource(String name) throws ResourceNotFoundException {
+            return new ByteArrayInputStream(json.getBytes());
+        }
+    }
+
+    private static class ClosingResponse implements RepositoryResponse, Closeable {
+        private final int[] closes;
+        private final RepositoryEntry entry;
+
+        public ClosingResponse(int[] closes, RepositoryEntry entry) {
+            this.closes = closes;
+            this.entry = entry;
+        }
+
+        @Override
+        public Iterable<? extends RepositoryEntry> getFiles() {
+            return Arrays.asList(entry);
+        }
+
+        @Override
+        public void close() {
+            closes[0]++;
+        }
+    }
+
+    private static class RamlEntry implements RepositoryEntry {
+        private final String name;
+
+        public RamlEntry(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getPath() {
+            return "/" + name;
+        }
+
+        @Override
+        public String getContent() {
+            return "#%RAML 0.8\ntitle: " + name;
+        }
+    }
+
+    private static class CountingEntry implements RepositoryEntry {
+        private final String name;
+        private int reads;
+
+        public CountingEntry(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getPath() {
+            return "/" + name;
+        }
+
+        @Override
+        public String getContent() {
+            reads++;
+            return name;
+        }
+    }
+}
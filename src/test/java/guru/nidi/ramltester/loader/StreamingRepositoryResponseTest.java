@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.loader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class StreamingRepositoryResponseTest {
+    @Test
+    public void apiDesigner() throws IOException {
+        final Map<String, RepositoryEntry> entries = read(
+                "{\"1\":{\"name\":\"a.raml\",\"path\":\"/a.raml\",\"contents\":\"h%C3%A4llo%20a\"}," +
+                        "\"2\":{\"type\":\"x\",\"name\":\"b.raml\",\"path\":\"/dir/b.raml\",\"contents\":\"hello+b\",\"meta\":{\"x\":[1,2]}}}", true);
+        assertEquals(2, entries.size());
+        assertEquals("/a.raml", entries.get("a.raml").getPath());
+        assertEquals("hällo a", entries.get("a.raml").getContent());
+        assertEquals("hello b", entries.get("b.raml").getContent());
+    }
+
+    @Test
+    public void apiPortal() throws IOException {
+        final Map<String, RepositoryEntry> entries = read(
+                "{\"files\":{\"12\":{\"path\":\"/test.raml\",\"name\":\"test.raml\",\"type\":\"file\",\"content\":\"#%RAML 0.8\\ntitle: \\\"\\u00e4\\\"\",\"api_nid\":\"3\"}}," +
+                        "\"directory\":{\"path\":\"/\",\"name\":\"root\",\"type\":\"folder\",\"children\":[{\"path\":\"/test.raml\",\"name\":\"test.raml\"}]}}", false);
+        assertEquals(1, entries.size());
+        assertEquals("#%RAML 0.8\ntitle: \"ä\"", entries.get("test.raml").getContent());
+    }
+
+    @Test
+    public void emptyArray() throws IOException {
+        assertEquals(0, read("[]", true).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void deleteContentsOnClose() throws IOException {
+        final StreamingRepositoryResponse response = StreamingRepositoryResponse.read(
+                new ByteArrayInputStream("[{\"name\":\"a.raml\",\"content\":\"a\"}]".getBytes("utf-8")), false);
+        final RepositoryEntry entry = response.getFiles().iterator().next();
+        assertEquals("a", entry.getContent());
+        response.close();
+        entry.getContent();
+    }
+
+    private Map<String, RepositoryEntry> read(String json, boolean urlEncoded) throws IOException {
+        final Map<String, RepositoryEntry> res = new HashMap<>();
+        for (RepositoryEntry entry : StreamingRepositoryResponse.read(new ByteArrayInputStream(json.getBytes("utf-8")), urlEncoded).getFiles()) {
+            res.put(entry.getName(), entry);
+        }
+        return res;
+    }
+}
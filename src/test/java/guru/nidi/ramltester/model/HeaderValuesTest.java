@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.model;
+
+import guru.nidi.ramltester.servlet.ServletHeaderValues;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class HeaderValuesTest {
+    @Test
+    public void caseInsensitiveLookup() {
+        final ReadOnlyValues values = new ServletHeaderValues(request());
+        assertEquals(Arrays.<Object>asList("a", "b"), values.get("x-multi"));
+        assertEquals(Arrays.<Object>asList("text/plain"), values.get("CONTENT-TYPE"));
+        assertNull(values.get("undefined"));
+    }
+
+    @Test
+    public void iterate() {
+        final ReadOnlyValues values = new ServletHeaderValues(request());
+        int count = 0;
+        for (Map.Entry<String, List<Object>> entry : values) {
+            assertEquals(values.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals(2, values.size());
+    }
+
+    @Test
+    public void equalsValues() {
+        final Values expected = new Values()
+                .addValue("X-Multi", "a").addValue("X-Multi", "b")
+                .addValue("Content-Type", "text/plain");
+        final ServletHeaderValues actual = new ServletHeaderValues(request());
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected, new Values(actual));
+    }
+
+    private MockHttpServletRequest request() {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Multi", "a");
+        request.addHeader("X-Multi", "b");
+        request.addHeader("Content-Type", "text/plain");
+        return request;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class BodyCaptureTest {
+    @Test
+    public void inMemory() throws IOException {
+        final BodyCapture capture = new BodyCapture(10, 20);
+        capture.write(new byte[]{1, 2, 3});
+        assertFalse(capture.isSpilled());
+        assertFalse(capture.isTooLarge());
+        assertArrayEquals(new byte[]{1, 2, 3}, capture.toByteArray());
+    }
+
+    @Test
+    public void expectedSizeIsNotCopied() throws IOException {
+        final BodyCapture capture = new BodyCapture(10, 20, 3);
+        capture.write(new byte[]{1, 2});
+        capture.write(3);
+        final byte[] content = capture.toByteArray();
+        assertArrayEquals(new byte[]{1, 2, 3}, content);
+        assertSame(content, capture.toByteArray());
+    }
+
+    @Test
+    public void moreThanExpectedSize() throws IOException {
+        final BodyCapture capture = new BodyCapture(4, 20, 2);
+        capture.write(new byte[]{1, 2, 3});
+        assertFalse(capture.isSpilled());
+        assertArrayEquals(new byte[]{1, 2, 3}, capture.toByteArray());
+        capture.write(new byte[]{4, 5});
+        assertTrue(capture.isSpilled());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, capture.toByteArray());
+        capture.release();
+    }
+
+    @Test
+    public void lessThanExpectedSize() throws IOException {
+        final BodyCapture capture = new BodyCapture(10, 20, 5);
+        capture.write(new byte[]{1, 2});
+        assertArrayEquals(new byte[]{1, 2}, capture.toByteArray());
+        assertArrayEquals(new byte[]{1, 2}, IoUtils.readIntoByteArray(capture.getInputStream()));
+    }
+
+    @Test
+    public void untrustedExpectedSize() throws IOException {
+        final BodyCapture capture = new BodyCapture(Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE - 10);
+        capture.write(new byte[]{1, 2});
+        assertArrayEquals(new byte[]{1, 2}, capture.toByteArray());
+        final byte[] data = {1, 2, 3, 4};
+        assertArrayEquals(data, IoUtils.readIntoByteArray(new ByteArrayInputStream(data), Integer.MAX_VALUE - 10));
+    }
+
+    @Test
+    public void readWithExpectedSize() throws IOException {
+        final byte[] data = {1, 2, 3, 4};
+        assertArrayEquals(data, IoUtils.readIntoByteArray(new ByteArrayInputStream(data), 4));
+        assertArrayEquals(data, IoUtils.readIntoByteArray(new ByteArrayInputStream(data), 2));
+        assertArrayEquals(data, IoUtils.readIntoByteArray(new ByteArrayInputStream(data), 6));
+        assertArrayEquals(data, IoUtils.readIntoByteArray(new ByteArrayInputStream(data), -1));
+    }
+
+    @Test
+    public void spill() throws IOException {
+        final BodyCapture capture = new BodyCapture(2, 20);
+        capture.write(1);
+        capture.write(new byte[]{2, 3, 4});
+        assertTrue(capture.isSpilled());
+        assertFalse(capture.isTooLarge());
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, capture.toByteArray());
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, IoUtils.readIntoByteArray(capture.getInputStream()));
+        capture.release();
+    }
+
+    @Test
+    public void singleBytes() throws IOException {
+        final BodyCapture capture = new BodyCapture(4, 6, 2);
+        for (int i = 1; i <= 6; i++) {
+            capture.write(i);
+            assertEquals(i > 4, capture.isSpilled());
+        }
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, capture.toByteArray());
+        capture.write(7);
+        assertTrue(capture.isTooLarge());
+        assertEquals(7, capture.size());
+    }
+
+    @Test
+    public void tooLarge() throws IOException {
+        final BodyCapture capture = new BodyCapture(2, 5);
+        capture.write(new byte[]{1, 2, 3, 4});
+        capture.write(new byte[]{5, 6});
+        capture.write(7);
+        assertTrue(capture.isTooLarge());
+        assertFalse(capture.isSpilled());
+        assertEquals(7, capture.size());
+        assertEquals(0, capture.toByteArray().length);
+    }
+
+    @Test
+    public void limitsByMediaTypeAndAction() {
+        final CaptureLimits limits = CaptureLimits.of(100, 1000)
+                .forMediaType("application/json", 10, 100)
+                .forAction("GET", "/data/{id}/content", 1, 10);
+        assertLimit(1000, limits.newCapture("GET", "/data", "text/plain"));
+        assertLimit(100, limits.newCapture("GET", "/data", "application/json; charset=utf-8"));
+        assertLimit(10, limits.newCapture("GET", "/data/5/content", "application/json"));
+        assertLimit(100, limits.newCapture("POST", "/data/5/content", "application/json"));
+    }
+
+    private void assertLimit(int total, BodyCapture capture) {
+        try {
+            capture.write(new byte[total]);
+            assertFalse(capture.isTooLarge());
+            capture.write(1);
+            assertTrue(capture.isTooLarge());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class ChunkedOutputStreamTest {
+    @Test
+    public void bulkAndSingleWrites() throws IOException {
+        final byte[] data = data(20000);
+        final ChunkedOutputStream out = new ChunkedOutputStream();
+        out.write(data, 0, 100);
+        out.write(data[100]);
+        out.write(data, 101, data.length - 101);
+
+        assertEquals(data.length, out.size());
+        assertArrayEquals(data, out.toByteArray());
+        assertArrayEquals(data, IoUtils.readIntoByteArray(out.getInputStream()));
+    }
+
+    @Test
+    public void chunkBoundaries() throws IOException {
+        final byte[] data = data(3 * 8192);
+        final ChunkedOutputStream out = new ChunkedOutputStream();
+        out.write(data, 0, 8192);
+        out.write(data, 8192, 8192);
+        for (int i = 2 * 8192; i < data.length; i++) {
+            out.write(data[i]);
+        }
+        assertArrayEquals(data, out.toByteArray());
+        assertArrayEquals(data, IoUtils.readIntoByteArray(out.getInputStream()));
+    }
+
+    @Test
+    public void reuseAfterRelease() throws IOException {
+        final ChunkedOutputStream out = new ChunkedOutputStream();
+        out.write(data(10000));
+        out.release();
+        assertEquals(0, out.size());
+        assertEquals(-1, out.getInputStream().read());
+
+        out.write(new byte[]{1, 2, 3});
+        assertArrayEquals(new byte[]{1, 2, 3}, out.toByteArray());
+    }
+
+    private byte[] data(int len) {
+        final byte[] data = new byte[len];
+        for (int i = 0; i < len; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import guru.nidi.ramltester.model.RamlRequest;
+import guru.nidi.ramltester.model.ReadOnlyValues;
+import guru.nidi.ramltester.model.StreamingMessage;
+import guru.nidi.ramltester.model.Values;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ */
+public class FormDecoderTest {
+    @Test
+    public void urlEncoded() throws UnsupportedEncodingException {
+        assertEquals(new Values().addValue("a", "1 2").addValue("a", "äöü").addValue("b", null).addValue("c", "").addValue("d=", "x"),
+                decode("application/x-www-form-urlencoded; charset=utf-8", "&a=1+2&b&c=&&a=%C3%A4%C3%B6%C3%BC&d%3D=x".getBytes("utf-8")));
+    }
+
+    @Test
+    public void urlEncodedIso() throws UnsupportedEncodingException {
+        assertEquals(new Values().addValue("ä", "ä ö"),
+                decode("application/x-www-form-urlencoded", "ä=%E4+ö".getBytes("iso-8859-1")));
+    }
+
+    @Test
+    public void urlEncodedUtf16() throws UnsupportedEncodingException {
+        assertEquals(new Values().addValue("a", "ä").addValue("b", null),
+                decode("application/x-www-form-urlencoded; charset=utf-16", "a=%FE%FF%00%E4&b".getBytes("utf-16")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void urlEncodedIncompleteEscape() throws UnsupportedEncodingException {
+        decode("application/x-www-form-urlencoded", "a=%4".getBytes("iso-8859-1"));
+    }
+
+    @Test
+    public void multipart() throws UnsupportedEncodingException {
+        final String body = "preamble\r\n" +
+                "--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"a.bin\"\r\n" +
+                "Content-Type: application/octet-stream\r\n\r\n" +
+                "--XyZ-- is not a delimiter\r\n" +
+                "--XyZ\r\n" +
+                "content-disposition: form-data;\r\n name=text\r\n" +
+                "Content-Type: text/plain; charset=utf-8\r\n\r\n" +
+                "äöü\r\n" +
+                "--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"text\"\r\n\r\n" +
+                "\r\n" +
+                "--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"files\"\r\n" +
+                "Content-Type: multipart/mixed; boundary=inner\r\n\r\n" +
+                "--inner\r\n" +
+                "Content-Disposition: attachment; filename=\"b.txt\"\r\n\r\n" +
+                "b\r\n" +
+                "--inner\r\n" +
+                "Content-Disposition: attachment; filename=\"c.txt\"\r\n\r\n" +
+                "c\r\n" +
+                "--inner--\r\n" +
+                "--XyZ--\r\n" +
+                "epilogue";
+        assertEquals(new Values()
+                        .addValue("file", new FileValue())
+                        .addValue("text", "äöü")
+                        .addValue("text", "")
+                        .addValue("files", new FileValue())
+                        .addValue("files", new FileValue()),
+                decode("multipart/form-data; boundary=\"XyZ\"", body.getBytes("utf-8")));
+    }
+
+    @Test
+    public void streamingUrlEncoded() throws UnsupportedEncodingException {
+        assertEquals(new Values().addValue("a", "1 2").addValue("a", "äöü").addValue("b", null).addValue("c", "").addValue("d=", "x"),
+                new FormDecoder().decode(new StreamingRequest("application/x-www-form-urlencoded; charset=utf-8",
+                        "&a=1+2&b&c=&&a=%C3%A4%C3%B6%C3%BC&d%3D=x".getBytes("utf-8"), 1)));
+    }
+
+    @Test
+    public void streamingMultipart() throws IOException {
+        final byte[] file = new byte[100000];
+        for (int i = 0; i < file.length; i++) {
+            //almost a delimiter
+            file[i] = (byte) "\r\n--XyQ".charAt(i % 7);
+        }
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"file\"; filename=\"a.bin\"\r\n\r\n").getBytes("iso-8859-1"));
+        body.write(file);
+        body.write(("\r\n--XyZ\r\n" +
+                "Content-Disposition: form-data; name=\"text\"\r\n\r\n" +
+                "value\r\n" +
+                "--XyZ--").getBytes("iso-8859-1"));
+        final Values expected = new Values().addValue("file", new FileValue()).addValue("text", "value");
+        for (final int chunk : Arrays.asList(1, 7, 8192, Integer.MAX_VALUE)) {
+            assertEquals(expected, new FormDecoder().decode(new StreamingRequest("multipart/form-data; boundary=XyZ", body.toByteArray(), chunk)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multipartUnterminated() throws UnsupportedEncodingException {
+        decode("multipart/form-data; boundary=b", "--b\r\nContent-Disposition: form-data; name=a\r\n\r\nvalue".getBytes("iso-8859-1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multipartNoBoundary() throws UnsupportedEncodingException {
+        decode("multipart/form-data", "--b--".getBytes("iso-8859-1"));
+    }
+
+    private Values decode(final String contentType, final byte[] content) {
+        return new FormDecoder().decode(new TestRequest(contentType, content));
+    }
+
+    private static class TestRequest implements RamlRequest {
+        private final String contentType;
+        protected final byte[] content;
+
+        public TestRequest(String contentType, byte[] content) {
+            this.contentType = contentType;
+            this.content = content;
+        }
+
+        @Override
+        public String getRequestUrl(String baseUri) {
+            return null;
+        }
+
+        @Override
+        public String getMethod() {
+            return "POST";
+        }
+
+        @Override
+        public Values getQueryValues() {
+            return new Values();
+        }
+
+        @Override
+        public Values getFormValues() {
+            return null;
+        }
+
+        @Override
+        public ReadOnlyValues getHeaderValues() {
+            return new Values();
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public byte[] getContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Delivers the content in chunks of the given size and fails if it is requested as a whole.
+     */
+    private static class StreamingRequest extends TestRequest implements StreamingMessage {
+        private final int chunk;
+
+        public StreamingRequest(String contentType, byte[] content, int chunk) {
+            super(contentType, content);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public byte[] getContent() {
+            throw new AssertionError("Content of a streaming message should not be loaded");
+        }
+
+        @Override
+        public long getTransferredSize() {
+            return content.length;
+        }
+
+        @Override
+        public InputStream getContentStream() {
+            return new ByteArrayInputStream(content) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, chunk));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.util;
+
+import guru.nidi.ramltester.model.Values;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class UriComponentsTest {
+    @Test
+    public void simple() {
+        final UriComponents uri = UriComponents.fromHttpUrl("HTTPS://user:pw@host.com:8080/a/b?x=1&y&z=&x=2");
+        assertEquals("https", uri.getScheme());
+        assertEquals("user:pw", uri.getUserInfo());
+        assertEquals("host.com", uri.getHost());
+        assertEquals(8080, (int) uri.getPort());
+        assertEquals("/a/b", uri.getPath());
+        assertEquals("x=1&y&z=&x=2", uri.getQueryString());
+        assertEquals(new Values().addValue("x", "1").addValue("x", "2").addValue("y", null).addValue("z", ""), uri.getQueryParameters());
+        assertEquals("https://user:pw@host.com:8080", uri.getServer());
+        assertEquals("https://user:pw@host.com:8080/a/b", uri.getUri());
+    }
+
+    @Test
+    public void ipv6() {
+        final UriComponents uri = UriComponents.fromHttpUrl("http://[::1%eth0]:80");
+        assertEquals("[::1%eth0]", uri.getHost());
+        assertEquals(80, (int) uri.getPort());
+        assertEquals("", uri.getPath());
+        assertNull(uri.getQueryString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noHost() {
+        UriComponents.fromHttpUrl("http:///path");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noScheme() {
+        UriComponents.fromHttpUrl("ftp://host/path");
+    }
+
+    @Test
+    public void sameAsRegex() {
+        final String[] parts = {"http:", "https:", "HTTP:", "//", "/", "@", "?", "#", ":", "[", "]", "=", "&",
+                "a", "b", "0", "8", "f", "x", "%", ".", "\n", "\u2028", " ", "host", "::1", "123"};
+        final Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            final StringBuilder s = new StringBuilder(random.nextInt(3) == 0 ? "" : parts[random.nextInt(3)] + "//");
+            final int len = random.nextInt(12);
+            for (int j = 0; j < len; j++) {
+                s.append(parts[random.nextInt(parts.length)]);
+            }
+            assertSame(s.toString());
+        }
+    }
+
+    private void assertSame(String url) {
+        String expected;
+        try {
+            expected = RegexUriComponents.parse(url);
+        } catch (IllegalArgumentException e) {
+            expected = "error: " + e.getMessage();
+        }
+        String actual;
+        try {
+            final UriComponents uri = UriComponents.fromHttpUrl(url);
+            actual = RegexUriComponents.describe(uri.getScheme(), uri.getUserInfo(), uri.getHost(), uri.getPort(), uri.getPath(), uri.getQueryString())
+                    + " " + uri.getQueryParameters();
+        } catch (IllegalArgumentException e) {
+            actual = "error: " + e.getMessage();
+        }
+        assertEquals(url, expected, actual);
+    }
+
+    /**
+     * The former, regex based implementation.
+     */
+    private static class RegexUriComponents {
+        private static final String
+                HTTP = "(?i)(http|https):",
+                USERINFO = "([^@/]*)",
+                HOST_IPV4 = "[^\\[/?#:]*",
+                HOST_IPV6 = "\\[[\\p{XDigit}\\:\\.]*[%\\p{Alnum}]*\\]",
+                HOST = "(" + HOST_IPV6 + "|" + HOST_IPV4 + ")",
+                PORT = "(\\d*)",
+                PATH = "([^?#]*)",
+                LAST = "(.*)";
+
+        private static final Pattern
+                HTTP_URL = Pattern.compile("^" + HTTP + "(//(" + USERINFO + "@)?" + HOST + "(:" + PORT + ")?" + ")?" + PATH + "(\\?" + LAST + ")?"),
+                QUERY_PARAM = Pattern.compile("([^&=]+)(=?)([^&]+)?");
+
+        static String parse(String httpUrl) {
+            final Matcher m = HTTP_URL.matcher(httpUrl);
+            if (m.matches()) {
+                String scheme = m.group(1);
+                scheme = (scheme != null) ? scheme.toLowerCase() : null;
+                final String userInfo = m.group(4);
+                final String host = m.group(5);
+                if (scheme != null && scheme.length() > 0 && (host == null || host.length() == 0)) {
+                    throw new IllegalArgumentException("[" + httpUrl + "] is not a valid HTTP URL");
+                }
+                Integer port = null;
+                final String portString = m.group(7);
+                if (portString != null && portString.length() > 0) {
+                    port = Integer.parseInt(portString);
+                }
+                final String query = m.group(10);
+                return describe(scheme, userInfo, host, port, m.group(8), query) + " " + parseQuery(query);
+            }
+            throw new IllegalArgumentException("[" + httpUrl + "] is not a valid HTTP URL");
+        }
+
+        static Values parseQuery(String query) {
+            final Values q = new Values();
+            if (query != null) {
+                final Matcher m = QUERY_PARAM.matcher(query);
+                while (m.find()) {
+                    final String eq = m.group(2);
+                    final String value = m.group(3);
+                    q.addValue(m.group(1), (value != null ? value : (eq != null && eq.length() > 0 ? "" : null)));
+                }
+            }
+            return q;
+        }
+
+        static String describe(String scheme, String userInfo, String host, Integer port, String path, String query) {
+            return scheme + "|" + userInfo + "|" + host + "|" + port + "|" + path + "|" + query;
+        }
+    }
+}
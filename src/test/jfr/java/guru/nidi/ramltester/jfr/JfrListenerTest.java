@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014 Stefan Niederhauser (nidin@gmx.ch)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package guru.nidi.ramltester.jfr;
+
+import guru.nidi.ramltester.core.RamlReport;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.raml.model.Raml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class JfrListenerTest {
+    @Test
+    public void disabledWithoutRecording() {
+        assertFalse(new JfrCheckListener().isEnabled());
+    }
+
+    @Test
+    public void checkEvent() throws IOException {
+        final JfrCheckListener listener = new JfrCheckListener();
+        final List<RecordedEvent> events = record("guru.nidi.ramltester.Check", new Runnable() {
+            @Override
+            public void run() {
+                listener.checkStarted(null, null);
+                listener.checkFinished(new RamlReport(new Raml()), null, 0);
+            }
+        });
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).getInt("status"));
+        assertEquals(0, events.get(0).getInt("violations"));
+    }
+
+    @Test
+    public void loadEvent() throws IOException {
+        final JfrLoadListener listener = new JfrLoadListener();
+        final List<RecordedEvent> events = record("guru.nidi.ramltester.RamlLoad", new Runnable() {
+            @Override
+            public void run() {
+                listener.loadStarted("simple.raml", null);
+                listener.loadFinished("simple.raml", null, 42, 0);
+            }
+        });
+        assertEquals(1, events.size());
+        assertEquals("simple.raml", events.get(0).getString("name"));
+        assertEquals(42, events.get(0).getLong("bytes"));
+    }
+
+    private List<RecordedEvent> record(String event, Runnable action) throws IOException {
+        final Path file = Files.createTempFile("raml", ".jfr");
+        try {
+            try (final Recording recording = new Recording()) {
+                recording.enable(event);
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}